@@ -15,6 +15,9 @@
  */
 package org.springframework.cli;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cli.config.SpringCliRuntimeHints;
@@ -31,7 +34,29 @@ import org.springframework.shell.command.annotation.CommandScan;
 @CommandScan
 public class SpringCliApplication {
 
+	/**
+	 * Global flag to work from cached content only, see {@code spring.cli.offline}.
+	 */
+	private static final String OFFLINE_FLAG = "--offline";
+
 	public static void main(String[] args) {
-		SpringApplication.run(SpringCliApplication.class, args);
+		SpringApplication.run(SpringCliApplication.class, handleGlobalFlags(args));
+	}
+
+	/**
+	 * Removes global flags which are not options of any command and turns them into
+	 * properties.
+	 */
+	static String[] handleGlobalFlags(String[] args) {
+		List<String> commandArgs = new ArrayList<>(args.length);
+		for (String arg : args) {
+			if (OFFLINE_FLAG.equals(arg)) {
+				System.setProperty("spring.cli.offline", "true");
+			}
+			else {
+				commandArgs.add(arg);
+			}
+		}
+		return commandArgs.toArray(new String[0]);
 	}
 }
@@ -15,29 +15,36 @@
  */
 package org.springframework.cli.command;
 
+import java.util.Arrays;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cli.config.SpringCliUserConfig;
 import org.springframework.cli.git.SourceRepositoryService;
 import org.springframework.cli.merger.ProjectHandler;
+import org.springframework.cli.util.ProjectCatalogIndexer;
 import org.springframework.cli.util.ProjectInfo;
 import org.springframework.cli.util.TerminalMessage;
 import org.springframework.shell.command.annotation.Command;
 import org.springframework.shell.command.annotation.Option;
+import org.springframework.util.StringUtils;
 
 @Command(command = "boot", group = "Boot")
 public class BootCommands extends AbstractSpringCliCommands {
 
 	private final SpringCliUserConfig springCliUserConfig;
 	private final SourceRepositoryService sourceRepositoryService;
+	private final ProjectCatalogIndexer projectCatalogIndexer;
 
 	private final TerminalMessage terminalMessage;
 
 	@Autowired
 	public BootCommands(SpringCliUserConfig springCliUserConfig,
 			SourceRepositoryService sourceRepositoryService,
+			ProjectCatalogIndexer projectCatalogIndexer,
 			TerminalMessage terminalMessage) {
 		this.springCliUserConfig = springCliUserConfig;
 		this.sourceRepositoryService = sourceRepositoryService;
+		this.projectCatalogIndexer = projectCatalogIndexer;
 		this.terminalMessage = terminalMessage;
 	}
 
@@ -52,17 +59,20 @@ public class BootCommands extends AbstractSpringCliCommands {
 			@Option(longNames = "package-name", description = "Package name for the new project") String packageName,
 			@Option(description = "Path to run the command in, most of the time this is not necessary to specify and the default value is the current working directory.") String path) {
 		ProjectInfo projectInfo = new ProjectInfo(groupId, artifactId, version, name, description, packageName);
-		ProjectHandler handler = new ProjectHandler(springCliUserConfig, sourceRepositoryService, terminalMessage);
+		ProjectHandler handler = new ProjectHandler(springCliUserConfig, sourceRepositoryService, projectCatalogIndexer,
+				terminalMessage);
 		handler.create(from, path, projectInfo);
 	}
 
 
 	@Command(command = "add", description = "Merge an existing project into the current Spring Boot project")
 	public void bootAdd(
-			@Option(description = "Add to project from an existing project name or URL") String from,
-			@Option(description = "Path") String path) {
-		ProjectHandler handler = new ProjectHandler(springCliUserConfig, sourceRepositoryService, terminalMessage);
-		handler.add(from, path);
+			@Option(description = "Add to project from existing project names or URLs, separated by commas") String from,
+			@Option(description = "Path") String path,
+			@Option(longNames = "dry-run", description = "Print the files that would be changed without changing them") boolean dryRun) {
+		ProjectHandler handler = new ProjectHandler(springCliUserConfig, sourceRepositoryService, projectCatalogIndexer,
+				terminalMessage);
+		handler.add(Arrays.asList(StringUtils.tokenizeToStringArray(from, ",")), path, dryRun);
 	}
 
 }
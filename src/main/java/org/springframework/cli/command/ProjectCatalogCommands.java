@@ -34,10 +34,12 @@ import org.springframework.cli.SpringCliException;
 import org.springframework.cli.config.SpringCliUserConfig;
 import org.springframework.cli.config.SpringCliUserConfig.CatalogRepositories;
 import org.springframework.cli.config.SpringCliUserConfig.CatalogRepository;
+import org.springframework.cli.config.SpringCliUserConfig.IndexedProjects;
 import org.springframework.cli.config.SpringCliUserConfig.ProjectCatalog;
 import org.springframework.cli.config.SpringCliUserConfig.ProjectCatalogs;
 import org.springframework.cli.git.SourceRepositoryService;
 import org.springframework.cli.support.configfile.YamlConfigFile;
+import org.springframework.cli.util.ProjectCatalogIndexer;
 import org.springframework.cli.util.TerminalMessage;
 import org.springframework.shell.command.annotation.Command;
 import org.springframework.shell.command.annotation.Option;
@@ -59,14 +61,18 @@ public class ProjectCatalogCommands extends AbstractSpringCliCommands {
 
 	private final SourceRepositoryService sourceRepositoryService;
 
+	private final ProjectCatalogIndexer projectCatalogIndexer;
+
 	private final TerminalMessage terminalMessage;
 
 
 	@Autowired
 	public ProjectCatalogCommands(SpringCliUserConfig springCliUserConfig,
-			SourceRepositoryService sourceRepositoryService, TerminalMessage terminalMessage) {
+			SourceRepositoryService sourceRepositoryService, ProjectCatalogIndexer projectCatalogIndexer,
+			TerminalMessage terminalMessage) {
 		this.springCliUserConfig = springCliUserConfig;
 		this.sourceRepositoryService = sourceRepositoryService;
+		this.projectCatalogIndexer = projectCatalogIndexer;
 		this.terminalMessage = terminalMessage;
 	}
 
@@ -99,7 +105,8 @@ public class ProjectCatalogCommands extends AbstractSpringCliCommands {
 	}
 
 	private Collection<CatalogRepository> getCatalogRepositories() {
-		Path path = sourceRepositoryService.retrieveRepositoryContents("https://github.com/rd-1-2022/available-catalog-repositories");
+		Path path = sourceRepositoryService.retrieveRepositoryFile(
+				"https://github.com/rd-1-2022/available-catalog-repositories", "catalog-repositories.yml");
 		YamlConfigFile yamlConfigFile = new YamlConfigFile();
 		Collection<CatalogRepository> catalogRepositories =
 				yamlConfigFile.read(Paths.get(path.toString(),"catalog-repositories.yml"),
@@ -181,6 +188,13 @@ public class ProjectCatalogCommands extends AbstractSpringCliCommands {
 		}
 	}
 
+	@Command(command = "refresh", description = "Refresh the local index of projects in installed catalogs")
+	public void catalogRefresh() {
+		IndexedProjects indexedProjects = projectCatalogIndexer.refresh();
+		this.terminalMessage.print("Indexed " + indexedProjects.getProjects().size() + " projects from "
+				+ indexedProjects.getCatalogs().size() + " catalogs.");
+	}
+
 	@Command(command = "remove", description = "Remove a project from a catalog")
 	public void catalogRemove(
 		@Option(description = "Catalog name", required = true) String name
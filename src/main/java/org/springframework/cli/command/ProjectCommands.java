@@ -15,9 +15,6 @@
  */
 package org.springframework.cli.command;
 
-import java.io.IOException;
-import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
@@ -29,11 +26,10 @@ import org.slf4j.LoggerFactory;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cli.config.SpringCliUserConfig;
-import org.springframework.cli.config.SpringCliUserConfig.ProjectCatalog;
 import org.springframework.cli.config.SpringCliUserConfig.ProjectRepositories;
 import org.springframework.cli.config.SpringCliUserConfig.ProjectRepository;
 import org.springframework.cli.git.SourceRepositoryService;
-import org.springframework.cli.support.configfile.YamlConfigFile;
+import org.springframework.cli.util.ProjectCatalogIndexer;
 import org.springframework.cli.util.TerminalMessage;
 import org.springframework.shell.command.annotation.Command;
 import org.springframework.shell.command.annotation.Option;
@@ -42,7 +38,6 @@ import org.springframework.shell.table.BorderStyle;
 import org.springframework.shell.table.Table;
 import org.springframework.shell.table.TableBuilder;
 import org.springframework.shell.table.TableModel;
-import org.springframework.util.FileSystemUtils;
 import org.springframework.util.ObjectUtils;
 
 @Command(command = "project", group = "Project")
@@ -54,14 +49,18 @@ public class ProjectCommands {
 
 	private final SourceRepositoryService sourceRepositoryService;
 
+	private final ProjectCatalogIndexer projectCatalogIndexer;
+
 	private final TerminalMessage terminalMessage;
 
 	@Autowired
 	public ProjectCommands(SpringCliUserConfig upCliUserConfig,
 			SourceRepositoryService sourceRepositoryService,
+			ProjectCatalogIndexer projectCatalogIndexer,
 			TerminalMessage terminalMessage) {
 		this.upCliUserConfig = upCliUserConfig;
 		this.sourceRepositoryService = sourceRepositoryService;
+		this.projectCatalogIndexer = projectCatalogIndexer;
 		this.terminalMessage = terminalMessage;
 	}
 
@@ -103,37 +102,15 @@ public class ProjectCommands {
 		List<String[]> allRows = rows.collect(Collectors.toList());
 
 		// List projects that are contained in catalogs that the user had added using the `project-catalog add` command
-		List<ProjectCatalog> projectCatalogs = upCliUserConfig.getProjectCatalogs().getProjectCatalogs();
-		for (ProjectCatalog projectCatalog : projectCatalogs) {
-			String url = projectCatalog.getUrl();
-			Path path = sourceRepositoryService.retrieveRepositoryContents(url);
-			YamlConfigFile yamlConfigFile = new YamlConfigFile();
-			projectRepositories = yamlConfigFile.read(Paths.get(path.toString(),"project-catalog.yml"),
-					ProjectRepositories.class).getProjectRepositories();
-			Stream<String[]> fromCatalogRows;
-			if (projectRepositories != null) {
-				fromCatalogRows = projectRepositories.stream()
-						.map(tr -> new String[] {
-								tr.getName(),
-								Objects.requireNonNullElse(tr.getDescription(), ""),
-								tr.getUrl(),
-								projectCatalog.getName(),
-								(Objects.requireNonNullElse(tr.getTags(), "")).toString() }
-						);
-			} else {
-				fromCatalogRows = Stream.empty();
-			}
-			List<String[]> projectCatalogRows = fromCatalogRows.collect(Collectors.toList());
-			allRows.addAll(projectCatalogRows);
-
-			// clean up temp files
-			try {
-				FileSystemUtils.deleteRecursively(path);
-			} catch (IOException ex) {
-				logger.warn("Could not delete path " + path, ex);
-			}
-
-		}
+		projectCatalogIndexer.getProjects().stream()
+				.map(tr -> new String[] {
+						tr.getName(),
+						Objects.requireNonNullElse(tr.getDescription(), ""),
+						tr.getUrl(),
+						tr.getCatalog(),
+						(Objects.requireNonNullElse(tr.getTags(), "")).toString() }
+				)
+				.forEach(allRows::add);
 
 		String[][] data = Stream.concat(header, allRows.stream()).toArray(String[][]::new);
 		TableModel model = new ArrayTableModel(data);
@@ -22,14 +22,20 @@ import io.netty.resolver.DefaultAddressResolverGroup;
 import org.jline.terminal.Terminal;
 
 import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.web.reactive.function.client.ReactorNettyHttpClientMapper;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cli.git.GitSourceRepositoryService;
+import org.springframework.cli.git.RepositoryCache;
+import org.springframework.cli.git.SourceRepositoryService;
 import org.springframework.cli.initializr.InitializrClientCache;
 import org.springframework.cli.runtime.command.DynamicMethodCommandResolver;
 import org.springframework.cli.runtime.engine.model.MavenModelPopulator;
 import org.springframework.cli.runtime.engine.model.ModelPopulator;
 import org.springframework.cli.runtime.engine.model.RootPackageModelPopulator;
 import org.springframework.cli.runtime.engine.model.SystemModelPopulator;
+import org.springframework.cli.util.ProjectCatalogIndexer;
 import org.springframework.cli.util.SpringCliTerminal;
 import org.springframework.cli.util.TerminalMessage;
 import org.springframework.context.annotation.Bean;
@@ -102,8 +108,10 @@ public class SpringCliConfiguration {
 	}
 
 	@Bean
-	InitializrClientCache initializrClientCache(WebClient.Builder webClientBuilder) {
-		return new InitializrClientCache(webClientBuilder);
+	InitializrClientCache initializrClientCache(WebClient.Builder webClientBuilder,
+			SpringCliUserConfig springCliUserConfig, SpringCliProperties springCliProperties) {
+		return new InitializrClientCache(webClientBuilder, springCliUserConfig.getCacheDir().resolve("initializr"),
+				springCliProperties.isOffline());
 	}
 
 	@Bean
@@ -111,6 +119,33 @@ public class SpringCliConfiguration {
 		return new SpringCliUserConfig();
 	}
 
+	@Bean
+	@ConditionalOnProperty(prefix = "spring.cli.repository-cache", name = "enabled", matchIfMissing = true)
+	public RepositoryCache repositoryCache(SpringCliUserConfig springCliUserConfig,
+			SpringCliProperties springCliProperties) {
+		return new RepositoryCache(springCliUserConfig.getCacheDir().resolve("repositories"),
+				springCliProperties.getRepositoryCache().getMaxSize().toBytes(),
+				springCliProperties.getRepositoryCache().getLinkMode());
+	}
+
+	@Bean
+	public GitSourceRepositoryService gitSourceRepositoryService(SpringCliUserConfig springCliUserConfig,
+			ObjectProvider<RepositoryCache> repositoryCache, SpringCliProperties springCliProperties) {
+		return new GitSourceRepositoryService(springCliUserConfig, repositoryCache.getIfAvailable(),
+				springCliProperties.isOffline());
+	}
+
+	@Bean
+	public ProjectCatalogIndexer projectCatalogIndexer(SpringCliUserConfig springCliUserConfig,
+			SourceRepositoryService sourceRepositoryService, SpringCliProperties springCliProperties,
+			ObjectProvider<ApplicationArguments> applicationArguments) {
+		// the shell is interactive without arguments, a one-shot command exits right away
+		ApplicationArguments arguments = applicationArguments.getIfAvailable();
+		boolean interactive = arguments != null && arguments.getSourceArgs().length == 0;
+		return new ProjectCatalogIndexer(springCliUserConfig, sourceRepositoryService,
+				springCliProperties.getProjectCatalogIndex().getTtl(), springCliProperties.isOffline(), interactive);
+	}
+
 	@Bean
 	public ProjectCatalogInitializer projectCatalogInitializer(SpringCliUserConfig springCliUserConfig,
 			SpringCliProjectCatalogProperties springCliProjectCatalogProperties) {
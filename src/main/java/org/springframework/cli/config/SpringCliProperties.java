@@ -15,7 +15,11 @@
  */
 package org.springframework.cli.config;
 
+import java.time.Duration;
+
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.cli.util.FileCopier;
+import org.springframework.util.unit.DataSize;
 
 /**
  * Configuration properties for cli.
@@ -25,10 +29,28 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 @ConfigurationProperties(prefix = "spring.cli")
 public class SpringCliProperties {
 
+	/**
+	 * Whether to work from cached content only, without network access. Also enabled
+	 * with the global {@code --offline} flag.
+	 */
+	private boolean offline;
+
 	private Initializr initializr = new Initializr();
 
 	private Github github = new Github();
 
+	private RepositoryCache repositoryCache = new RepositoryCache();
+
+	private ProjectCatalogIndex projectCatalogIndex = new ProjectCatalogIndex();
+
+	public boolean isOffline() {
+		return offline;
+	}
+
+	public void setOffline(boolean offline) {
+		this.offline = offline;
+	}
+
 	public Initializr getInitializr() {
 		return initializr;
 	}
@@ -45,6 +67,22 @@ public class SpringCliProperties {
 		this.github = github;
 	}
 
+	public RepositoryCache getRepositoryCache() {
+		return repositoryCache;
+	}
+
+	public void setRepositoryCache(RepositoryCache repositoryCache) {
+		this.repositoryCache = repositoryCache;
+	}
+
+	public ProjectCatalogIndex getProjectCatalogIndex() {
+		return projectCatalogIndex;
+	}
+
+	public void setProjectCatalogIndex(ProjectCatalogIndex projectCatalogIndex) {
+		this.projectCatalogIndex = projectCatalogIndex;
+	}
+
 	/**
 	 * Settings for spring initializr.
 	 */
@@ -105,11 +143,98 @@ public class SpringCliProperties {
 		}
 	}
 
+	/**
+	 * Settings for the local cache of retrieved source repositories.
+	 */
+	public static class RepositoryCache {
+
+		/**
+		 * Whether retrieved repositories are cached under the cli config dir.
+		 */
+		private boolean enabled = true;
+
+		/**
+		 * Maximum size of the cache before least recently used entries are evicted.
+		 */
+		private DataSize maxSize = DataSize.ofMegabytes(512);
+
+		/**
+		 * How files of a created project that are unchanged from the cached repository
+		 * are materialized. With hardlink the cached files are read-only and so are the
+		 * linked project files, reflink needs a copy-on-write filesystem. The pom, the
+		 * application class and configuration files are always copied. Falls back to
+		 * copying when linking fails.
+		 */
+		private FileCopier.LinkMode linkMode = FileCopier.LinkMode.COPY;
+
+		public boolean isEnabled() {
+			return enabled;
+		}
+
+		public void setEnabled(boolean enabled) {
+			this.enabled = enabled;
+		}
+
+		public DataSize getMaxSize() {
+			return maxSize;
+		}
+
+		public void setMaxSize(DataSize maxSize) {
+			this.maxSize = maxSize;
+		}
+
+		public FileCopier.LinkMode getLinkMode() {
+			return linkMode;
+		}
+
+		public void setLinkMode(FileCopier.LinkMode linkMode) {
+			this.linkMode = linkMode;
+		}
+
+		@Override
+		public String toString() {
+			return "RepositoryCache{" +
+					"enabled=" + enabled +
+					", maxSize=" + maxSize +
+					", linkMode=" + linkMode +
+					'}';
+		}
+	}
+
+	/**
+	 * Settings for the local index of project catalogs.
+	 */
+	public static class ProjectCatalogIndex {
+
+		/**
+		 * Age after which the index is refreshed in the background.
+		 */
+		private Duration ttl = Duration.ofHours(24);
+
+		public Duration getTtl() {
+			return ttl;
+		}
+
+		public void setTtl(Duration ttl) {
+			this.ttl = ttl;
+		}
+
+		@Override
+		public String toString() {
+			return "ProjectCatalogIndex{" +
+					"ttl=" + ttl +
+					'}';
+		}
+	}
+
 	@Override
 	public String toString() {
 		return "SpringCliProperties{" +
-				"initializr=" + initializr +
+				"offline=" + offline +
+				", initializr=" + initializr +
 				", github=" + github +
+				", repositoryCache=" + repositoryCache +
+				", projectCatalogIndex=" + projectCatalogIndex +
 				'}';
 	}
 }
@@ -36,6 +36,8 @@ import org.springframework.util.ObjectUtils;
 		SpringCliUserConfig.ProjectCatalog.class,
 		SpringCliUserConfig.ProjectRepositories.class,
 		SpringCliUserConfig.ProjectRepository.class,
+		SpringCliUserConfig.IndexedProjects.class,
+		SpringCliUserConfig.IndexedProject.class,
 		SpringCliUserConfig.CommandDefaults.class,
 		SpringCliUserConfig.CommandDefault.class,
 		SpringCliUserConfig.Option.class,
@@ -65,6 +67,11 @@ public class SpringCliUserConfig {
 	 */
 	public final static String PROJECT_REPOSITORIES_FILE_NAME = "project-repositories.yml";
 
+	/**
+	 * {@code project-catalog-index.yml} stores the projects of all installed project catalogs.
+	 */
+	public final static String PROJECT_CATALOG_INDEX_FILE_NAME = "project-catalog-index.yml";
+
 	/**
 	 * {@code command-defaults.yml} store default option values for commands.
 	 */
@@ -75,6 +82,11 @@ public class SpringCliUserConfig {
 	 */
 	public final static String INITIALIZR_FILE_NAME = "initializr.yml";
 
+	/**
+	 * {@code cache} directory holds locally cached content such as repositories.
+	 */
+	public final static String CACHE_DIR_NAME = "cache";
+
 	/**
 	 * Base directory name we store our config files.
 	 */
@@ -124,6 +136,24 @@ public class SpringCliUserConfig {
 		}
 	}
 
+	/**
+	 * Gets the directory where user level settings are stored.
+	 *
+	 * @return the config directory
+	 */
+	public Path getConfigDir() {
+		return hostsUserConfig.getConfigDir();
+	}
+
+	/**
+	 * Gets the directory where locally cached content is stored.
+	 *
+	 * @return the cache directory
+	 */
+	public Path getCacheDir() {
+		return getConfigDir().resolve(CACHE_DIR_NAME);
+	}
+
 	/**
 	 * Gets hosts.
 	 *
@@ -555,6 +585,87 @@ public class SpringCliUserConfig {
 		}
 	}
 
+	public static class IndexedProjects {
+
+		private long refreshed;
+
+		private List<String> catalogs = new ArrayList<>();
+
+		private List<IndexedProject> projects = new ArrayList<>();
+
+		public long getRefreshed() {
+			return refreshed;
+		}
+
+		public void setRefreshed(long refreshed) {
+			this.refreshed = refreshed;
+		}
+
+		public List<String> getCatalogs() {
+			return catalogs;
+		}
+
+		public void setCatalogs(List<String> catalogs) {
+			this.catalogs = catalogs;
+		}
+
+		public List<IndexedProject> getProjects() {
+			return projects;
+		}
+
+		public void setProjects(List<IndexedProject> projects) {
+			this.projects = projects;
+		}
+	}
+
+	public static class IndexedProject extends BaseProjectCommon {
+
+		private List<String> tags = new ArrayList<>();
+
+		private String catalog;
+
+		public IndexedProject() {
+		}
+
+		public IndexedProject(String name, String description, String url, List<String> tags, String catalog) {
+			super(name, description, url);
+			this.tags = tags;
+			this.catalog = catalog;
+		}
+
+		public static IndexedProject of(String name, String description, String url, List<String> tags,
+				String catalog) {
+			return new IndexedProject(name, description, url, tags, catalog);
+		}
+
+		public List<String> getTags() {
+			return tags;
+		}
+
+		public void setTags(List<String> tags) {
+			this.tags = tags;
+		}
+
+		public String getCatalog() {
+			return catalog;
+		}
+
+		public void setCatalog(String catalog) {
+			this.catalog = catalog;
+		}
+
+		@Override
+		public String toString() {
+			return "IndexedProject{" +
+					"tags=" + tags +
+					", catalog='" + catalog + '\'' +
+					", name='" + getName() + '\'' +
+					", description='" + getDescription() + '\'' +
+					", url='" + getUrl() + '\'' +
+					'}';
+		}
+	}
+
 	public static class CommandDefaults {
 
 		private List<CommandDefault> commandDefaults = new ArrayList<>();
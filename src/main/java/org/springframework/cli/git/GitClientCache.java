@@ -0,0 +1,130 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cli.git;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.gitlab4j.api.GitLabApi;
+import org.kohsuke.github.GitHub;
+import org.kohsuke.github.GitHubBuilder;
+import org.kohsuke.github.extras.HttpClientGitHubConnector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps GitHub and GitLab clients per host and credentials, so repeated retrievals reuse
+ * a client and its pooled keep-alive connections instead of paying for a new client and
+ * TLS handshake every time. GitHub clients share a single {@link HttpClient}.
+ * <p>
+ * GitLab clients are not routed through that {@link HttpClient}. gitlab4j-api sends its
+ * requests through a JAX-RS (Jersey 2) client, which has no connector for
+ * {@code java.net.http}. Its default connector uses {@code HttpURLConnection}, whose
+ * keep-alive connections are pooled for the whole JVM, so reusing a {@link GitLabApi}
+ * per host and token already avoids a new handshake per retrieval.
+ */
+class GitClientCache {
+
+	private static final Logger logger = LoggerFactory.getLogger(GitClientCache.class);
+
+	private final HttpClient httpClient = HttpClient.newBuilder()
+			.followRedirects(HttpClient.Redirect.NORMAL)
+			.connectTimeout(Duration.ofSeconds(30))
+			.build();
+
+	private final Map<String, Optional<GitHub>> gitHubClients = new ConcurrentHashMap<>();
+
+	private final Map<String, GitLabApi> gitLabClients = new ConcurrentHashMap<>();
+
+	/**
+	 * Gets a GitHub client, building it on first use.
+	 *
+	 * @param key identifies the host and credentials the builder is configured with
+	 * @param builderFactory creates the builder for the client, only called on first use
+	 * @return the client
+	 * @throws IOException if the client could not be built
+	 */
+	GitHub getGitHub(String key, GitHubBuilderFactory builderFactory) throws IOException {
+		Optional<GitHub> gitHub = gitHubClients.get(key);
+		if (gitHub != null && gitHub.isPresent()) {
+			return gitHub.get();
+		}
+		GitHub built = build(builderFactory.create());
+		Optional<GitHub> existing = gitHubClients.putIfAbsent(key, Optional.of(built));
+		return (existing != null && existing.isPresent()) ? existing.get() : built;
+	}
+
+	/**
+	 * Finds a GitHub client for credentials that may not be available, building it on
+	 * first use. If the builder can not be created, for example because the file holding
+	 * the credentials does not exist, that is remembered and not tried again.
+	 *
+	 * @param key identifies the host and credentials the builder is configured with
+	 * @param builderFactory creates the builder for the client, only called on first use
+	 * @return the client, or empty if the credentials are not available
+	 * @throws IOException if the client could not be built
+	 */
+	Optional<GitHub> findGitHub(String key, GitHubBuilderFactory builderFactory) throws IOException {
+		Optional<GitHub> gitHub = gitHubClients.get(key);
+		if (gitHub == null) {
+			GitHubBuilder builder;
+			try {
+				builder = builderFactory.create();
+			}
+			catch (IOException ex) {
+				logger.debug("No GitHub credentials for " + key + ": " + ex.getMessage());
+				builder = null;
+			}
+			gitHub = (builder != null) ? Optional.of(build(builder)) : Optional.empty();
+			Optional<GitHub> existing = gitHubClients.putIfAbsent(key, gitHub);
+			if (existing != null) {
+				gitHub = existing;
+			}
+		}
+		return gitHub;
+	}
+
+	private GitHub build(GitHubBuilder builder) throws IOException {
+		return builder.withConnector(new HttpClientGitHubConnector(httpClient)).build();
+	}
+
+	/**
+	 * Gets a GitLab client, creating it on first use. The client uses its own transport,
+	 * not the shared {@link HttpClient} of the GitHub clients.
+	 *
+	 * @param hostUrl the GitLab server url
+	 * @param token the access token
+	 * @return the client
+	 */
+	GitLabApi getGitLab(String hostUrl, String token) {
+		return gitLabClients.computeIfAbsent(hostUrl + "#" + token, (key) -> new GitLabApi(hostUrl, token));
+	}
+
+	/**
+	 * Creates a {@link GitHubBuilder}, possibly reading credentials.
+	 */
+	@FunctionalInterface
+	interface GitHubBuilderFactory {
+
+		GitHubBuilder create() throws IOException;
+
+	}
+
+}
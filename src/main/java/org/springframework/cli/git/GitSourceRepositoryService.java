@@ -15,7 +15,6 @@
  */
 package org.springframework.cli.git;
 
-import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
@@ -23,10 +22,11 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
 import org.gitlab4j.api.Constants.ArchiveFormat;
 import org.gitlab4j.api.Constants.SortOrder;
@@ -35,21 +35,22 @@ import org.gitlab4j.api.GitLabApi;
 import org.gitlab4j.api.GitLabApiException;
 import org.gitlab4j.api.models.Branch;
 import org.gitlab4j.api.models.Tag;
+import org.kohsuke.github.GHContent;
 import org.kohsuke.github.GHRepository;
 import org.kohsuke.github.GitHub;
 import org.kohsuke.github.GitHubBuilder;
-import org.rauschig.jarchivelib.Archiver;
-import org.rauschig.jarchivelib.ArchiverFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import org.springframework.cli.SpringCliException;
 import org.springframework.cli.config.SpringCliUserConfig;
 import org.springframework.cli.config.SpringCliUserConfig.Host;
-import org.springframework.stereotype.Component;
+import org.springframework.cli.util.FileCopier;
+import org.springframework.cli.util.FileCopier.CopyResult;
+import org.springframework.cli.util.FileCopier.LinkMode;
+import org.springframework.lang.Nullable;
 import org.springframework.util.FileSystemUtils;
 import org.springframework.util.ResourceUtils;
-import org.springframework.util.StreamUtils;
 import org.springframework.util.StringUtils;
 
 /**
@@ -57,15 +58,39 @@ import org.springframework.util.StringUtils;
  *
  * @author Thomas Risberg
  */
-@Component
 public class GitSourceRepositoryService implements SourceRepositoryService {
 
 	private final Logger logger = LoggerFactory.getLogger(GitSourceRepositoryService.class);
 
 	private final SpringCliUserConfig userConfig;
 
+	@Nullable
+	private final RepositoryCache repositoryCache;
+
+	private final boolean offline;
+
+	private final Map<Path, Path> cachedContentPaths = new ConcurrentHashMap<>();
+
+	private final Map<Path, String> commitShas = new ConcurrentHashMap<>();
+
+	private final GitClientCache clientCache = new GitClientCache();
+
 	public GitSourceRepositoryService(SpringCliUserConfig userConfig) {
+		this(userConfig, null, false);
+	}
+
+	/**
+	 * Creates a source repository service.
+	 *
+	 * @param userConfig the user config
+	 * @param repositoryCache the cache of retrieved repositories, or {@code null} to always download
+	 * @param offline whether repositories are only served from the cache
+	 */
+	public GitSourceRepositoryService(SpringCliUserConfig userConfig, @Nullable RepositoryCache repositoryCache,
+			boolean offline) {
 		this.userConfig = userConfig;
+		this.repositoryCache = repositoryCache;
+		this.offline = offline;
 	}
 
 	@Override
@@ -82,6 +107,9 @@ public class GitSourceRepositoryService implements SourceRepositoryService {
 		if (sourceRepoUrl.startsWith("file:")) {
 			contentPath = retrieveFileContents(sourceRepoUrl, targetPath);
 		}
+		else if (offline) {
+			contentPath = retrieveCachedRepositoryContents(GitRepoUrlRef.fromUriString(sourceRepoUrl), targetPath);
+		}
 		else {
 			GitRepoUrlRef gitRepoUrlRef = GitRepoUrlRef.fromUriString(sourceRepoUrl);
 			if (gitRepoUrlRef.getRepoUrl().toString().contains("github.com")) {
@@ -95,6 +123,128 @@ public class GitSourceRepositoryService implements SourceRepositoryService {
 		return contentPath;
 	}
 
+	@Override
+	public Path retrieveRepositoryFile(String sourceRepoUrl, String filePath) {
+		Path targetPath;
+		try {
+			targetPath = Files.createTempDirectory("source-file-");
+		}
+		catch (IOException e) {
+			throw new SpringCliException("Failed to create temp directory: " + e.getMessage(), e);
+		}
+		Path targetFile = targetPath.resolve(filePath);
+		if (sourceRepoUrl.startsWith("file:")) {
+			try {
+				Path sourceFile = ResourceUtils.getFile(sourceRepoUrl).toPath().resolve(filePath);
+				Files.createDirectories(targetFile.getParent());
+				Files.copy(sourceFile, targetFile);
+			}
+			catch (IOException e) {
+				throw new SpringCliException("Failed processing " + filePath + " of " + sourceRepoUrl, e);
+			}
+		}
+		else if (offline) {
+			retrieveCachedFile(GitRepoUrlRef.fromUriString(sourceRepoUrl), filePath, targetFile);
+		}
+		else {
+			GitRepoUrlRef gitRepoUrlRef = GitRepoUrlRef.fromUriString(sourceRepoUrl);
+			String repoFilePath = StringUtils.hasText(gitRepoUrlRef.getSubPath())
+					? StringUtils.trimTrailingCharacter(gitRepoUrlRef.getSubPath(), '/') + "/" + filePath : filePath;
+			repoFilePath = StringUtils.trimLeadingCharacter(repoFilePath, '/');
+			if (gitRepoUrlRef.getRepoUrl().toString().contains("github.com")) {
+				retrieveGitHubFile(gitRepoUrlRef, repoFilePath, targetFile);
+			}
+			else {
+				retrieveGitLabFile(gitRepoUrlRef, repoFilePath, targetFile);
+			}
+		}
+		logger.debug("File " + filePath + " from " + sourceRepoUrl + " retrieved into " + targetFile);
+		return targetPath;
+	}
+
+	/**
+	 * Retrieve repository contents from the cache only, without contacting the remote.
+	 */
+	private Path retrieveCachedRepositoryContents(GitRepoUrlRef url, Path targetPath) {
+		String repoUrl = url.getRepoUrl().toString();
+		if (repositoryCache == null) {
+			throw new SpringCliException("Cannot retrieve " + url + " while offline, the repository cache is disabled.");
+		}
+		Path repoPath = targetPath.resolve("repo");
+		String commitSha = repositoryCache.findLatestCommitSha(repoUrl, url.getRef(), url.getSubPath())
+				.filter(sha -> repositoryCache.copyTo(repoUrl, sha, url.getSubPath(), repoPath))
+				.orElseThrow(() -> new SpringCliException("Cannot retrieve " + url
+						+ " while offline, it has not been retrieved before. Run the command once without --offline."));
+		logger.debug("Retrieved " + url + " at " + commitSha + " from the repository cache while offline");
+		rememberCachedContent(repoUrl, commitSha, url.getSubPath(), repoPath);
+		commitShas.put(repoPath, commitSha);
+		return repoPath;
+	}
+
+	/**
+	 * Retrieve a single file from the cached copy of its repository, without contacting
+	 * the remote. Single files are not cached on their own.
+	 */
+	private void retrieveCachedFile(GitRepoUrlRef url, String filePath, Path targetFile) {
+		String repoUrl = url.getRepoUrl().toString();
+		if (repositoryCache == null) {
+			throw new SpringCliException("Cannot retrieve " + url + " while offline, the repository cache is disabled.");
+		}
+		Path cachedFile = repositoryCache.findLatestCommitSha(repoUrl, url.getRef(), url.getSubPath())
+				.flatMap(sha -> repositoryCache.findContent(repoUrl, sha, url.getSubPath()))
+				.map(contentPath -> contentPath.resolve(filePath))
+				.orElseThrow(() -> new SpringCliException("Cannot retrieve " + url
+						+ " while offline, it has not been retrieved before. Run the command once without --offline."));
+		try {
+			Files.createDirectories(targetFile.getParent());
+			Files.copy(cachedFile, targetFile);
+		}
+		catch (IOException e) {
+			throw new SpringCliException("Failed processing " + filePath + " of " + url, e);
+		}
+		logger.debug("Retrieved " + filePath + " of " + url + " from the repository cache while offline");
+	}
+
+	/**
+	 * Retrieve a single file through the GitHub contents API.
+	 */
+	private void retrieveGitHubFile(GitRepoUrlRef url, String repoFilePath, Path targetFile) {
+		try {
+			URI gitUri = new URI(url.getRepoUrl().toString());
+			GHRepository ghRepository = connectGitHub(gitUri).getRepository(getRepoName(gitUri));
+			GHContent content = StringUtils.hasText(url.getRef())
+					? ghRepository.getFileContent(repoFilePath, url.getRef())
+					: ghRepository.getFileContent(repoFilePath);
+			Files.createDirectories(targetFile.getParent());
+			try (InputStream inputStream = content.read()) {
+				Files.copy(inputStream, targetFile);
+			}
+		}
+		catch (IOException | URISyntaxException e) {
+			throw new SpringCliException("Failed retrieving " + repoFilePath + " from " + url, e);
+		}
+	}
+
+	/**
+	 * Retrieve a single file through the GitLab repository files API.
+	 */
+	private void retrieveGitLabFile(GitRepoUrlRef url, String repoFilePath, Path targetFile) {
+		try {
+			URI gitUri = new URI(url.getRepoUrl().toString());
+			GitLabApi gitLabApi = connectGitLab(gitUri);
+			String repo = getRepoName(gitUri);
+			String ref = StringUtils.hasText(url.getRef()) ? url.getRef()
+					: gitLabApi.getProjectApi().getProject(repo).getDefaultBranch();
+			Files.createDirectories(targetFile.getParent());
+			try (InputStream inputStream = gitLabApi.getRepositoryFileApi().getRawFile(repo, ref, repoFilePath)) {
+				Files.copy(inputStream, targetFile);
+			}
+		}
+		catch (IOException | URISyntaxException | GitLabApiException e) {
+			throw new SpringCliException("Failed retrieving " + repoFilePath + " from " + url, e);
+		}
+	}
+
 	/**
 	 * Retrieve contents from a file location.
 	 */
@@ -118,80 +268,164 @@ public class GitSourceRepositoryService implements SourceRepositoryService {
 
 		try {
 			URI gitUri = new URI(url.getRepoUrl().toString());
-			String token = getToken(gitUri.getHost());
-			GitHub github = null;
-			if (token == null) {
-				// try to use an environment variable
-				if (StringUtils.hasText(System.getenv("GITHUB_OAUTH"))) {
-					try {
-						github = GitHubBuilder.fromEnvironment().build();
-					} catch (IOException e) {
-						logger.trace("No environment variable GITHUB_AUTH found.", e.getMessage());
-						// do nothing
-					}
-				}
-				// fallback to property file
-				if (github == null) {
-					try {
-						github = GitHubBuilder.fromPropertyFile().build();
-					} catch (IOException e) {
-						logger.trace("No .github directory found under the base user.dir.", e.getMessage());
-						// ignore as there is not a .github directory under the user.dir
-					}
-				}
-				// connect anonymously
-				if (github == null) {
-					//TODO terminal warning about rate limiting
-					github = GitHub.connectAnonymously();
-				}
-			}
-			else {
-				github = new GitHubBuilder().withOAuthToken(token).build();
-			}
-			String repo = gitUri.getPath().substring(1);
-			if (repo.endsWith(".git")) {
-				repo = repo.substring(0, repo.length() - 4);
-			}
+			GitHub github = connectGitHub(gitUri);
 			String ref = url.getRef();
-			GHRepository ghRepository = github.getRepository(repo);
-			InputStream inputStream = ghRepository
-					.readTar((inputstream) -> new ByteArrayInputStream(StreamUtils.copyToByteArray(inputstream)), ref);
+			GHRepository ghRepository = github.getRepository(getRepoName(gitUri));
+			String commitSha = resolveGitHubCommitSha(ghRepository, ref);
+			String refToDownload = commitSha != null ? commitSha : ref;
+			return retrieveCachedOrDownload(url, commitSha, targetPath,
+					(downloadPath) -> downloadGitHubRepositoryContents(ghRepository, refToDownload, url.getSubPath(),
+							downloadPath));
+		}
+		catch (IOException | URISyntaxException e) {
+			throw new SpringCliException("Failed processing " + url, e);
+		}
+	}
 
-			File targetFile = targetPath.toFile();
-			Archiver archiver = ArchiverFactory.createArchiver("tar", "gz");
-			try {
-				archiver.extract(inputStream, targetPath.toFile());
-			} catch (Exception e) {
-				throw new SpringCliException(String.format("Extraction error to %s", targetFile.getAbsolutePath()), e);
+	private GitHub connectGitHub(URI gitUri) throws IOException {
+		String token = getToken(gitUri.getHost());
+		if (token != null) {
+			return clientCache.getGitHub("token:" + gitUri.getHost() + "#" + token,
+					() -> new GitHubBuilder().withOAuthToken(token));
+		}
+		// try to use an environment variable
+		if (StringUtils.hasText(System.getenv("GITHUB_OAUTH"))) {
+			Optional<GitHub> gitHub = clientCache.findGitHub("environment", GitHubBuilder::fromEnvironment);
+			if (gitHub.isPresent()) {
+				return gitHub.get();
 			}
+		}
+		// fallback to property file, a missing .github file under the user home is remembered
+		Optional<GitHub> gitHub = clientCache.findGitHub("property-file", GitHubBuilder::fromPropertyFile);
+		if (gitHub.isPresent()) {
+			return gitHub.get();
+		}
+		// connect anonymously
+		//TODO terminal warning about rate limiting
+		return clientCache.getGitHub("anonymous", GitHubBuilder::new);
+	}
 
-			Path unTar = Paths.get(targetPath.toFile().getAbsolutePath());
-			AtomicReference<Path> tarDir = new AtomicReference<>();
-			Files.list(unTar.toFile().toPath()).forEach((path) -> {
-				if (path.toFile().isDirectory()) {
-					if (tarDir.get() != null) {
-						throw new SpringCliException("Detected multiple directories '" + tarDir.get().toFile().getName()
-								+ "' and '" + path.toFile().getName() + " in downloaded zip file");
-					}
-					tarDir.set(path);
-				}
-			});
-			if (tarDir.get() == null) {
-				throw new SpringCliException(
-						"Downloaded zip file not unzipped correctly into " + unTar.toFile().getAbsolutePath());
+	private static String getRepoName(URI gitUri) {
+		String repo = gitUri.getPath().substring(1);
+		if (repo.endsWith(".git")) {
+			repo = repo.substring(0, repo.length() - 4);
+		}
+		return repo;
+	}
+
+	@Nullable
+	private String resolveGitHubCommitSha(GHRepository ghRepository, @Nullable String ref) {
+		if (repositoryCache == null) {
+			return null;
+		}
+		try {
+			String refToResolve = StringUtils.hasText(ref) ? ref : ghRepository.getDefaultBranch();
+			return ghRepository.getCommit(refToResolve).getSHA1();
+		}
+		catch (IOException ex) {
+			logger.debug("Could not resolve commit for ref " + ref + " of " + ghRepository.getFullName(), ex);
+			return null;
+		}
+	}
+
+	private void downloadGitHubRepositoryContents(GHRepository ghRepository, String ref, @Nullable String subPath,
+			Path repoPath) {
+		int extracted;
+		try {
+			extracted = ghRepository.readTar((inputStream) -> TarGzExtractor.extract(inputStream, repoPath, subPath),
+					ref);
+		}
+		catch (IOException e) {
+			throw new SpringCliException(String.format("Extraction error to %s", repoPath.toFile().getAbsolutePath()), e);
+		}
+		checkSubPathExtracted(ghRepository.getHtmlUrl().toString(), subPath, extracted);
+	}
+
+	private void checkSubPathExtracted(String repo, @Nullable String subPath, int extracted) {
+		if (StringUtils.hasText(subPath) && extracted == 0) {
+			throw new SpringCliException("Could not find path '" + subPath + "' in " + repo);
+		}
+	}
+
+	/**
+	 * Retrieve repository contents from the cache when the resolved commit is known and
+	 * cached, otherwise download them and add them to the cache. Only the sub path of
+	 * the repository is retrieved if the url has one.
+	 * @return the root directory of the retrieved contents
+	 */
+	private Path retrieveCachedOrDownload(GitRepoUrlRef url, @Nullable String commitSha, Path targetPath,
+			Consumer<Path> downloader) {
+		String repoUrl = url.getRepoUrl().toString();
+		Path repoPath = targetPath.resolve("repo");
+		if (commitSha != null) {
+			commitShas.put(repoPath, commitSha);
+		}
+		if (repositoryCache != null && commitSha != null) {
+			if (repositoryCache.copyTo(repoUrl, commitSha, url.getSubPath(), repoPath)) {
+				rememberCachedContent(repoUrl, commitSha, url.getSubPath(), repoPath);
+				return repoPath;
 			}
-			Path contentPath;
-			if (StringUtils.hasText(url.getSubPath())) {
-				contentPath = Paths.get(tarDir.get().toFile().getAbsolutePath(), url.getSubPath());
+			try {
+				FileSystemUtils.deleteRecursively(repoPath);
 			}
-			else {
-				contentPath = tarDir.get();
+			catch (IOException ex) {
+				logger.warn("Could not delete path " + repoPath, ex);
 			}
-			return contentPath;
 		}
-		catch (IOException | URISyntaxException e) {
-			throw new SpringCliException("Failed processing " + url, e);
+		downloader.accept(repoPath);
+		if (repositoryCache != null && commitSha != null) {
+			repositoryCache.put(repoUrl, commitSha, url.getRef(), url.getSubPath(), repoPath);
+			rememberCachedContent(repoUrl, commitSha, url.getSubPath(), repoPath);
 		}
+		return repoPath;
+	}
+
+	private void rememberCachedContent(String repoUrl, String commitSha, @Nullable String subPath, Path repoPath) {
+		if (repositoryCache.getLinkMode() != LinkMode.COPY) {
+			repositoryCache.findContent(repoUrl, commitSha, subPath)
+					.ifPresent(cachedPath -> cachedContentPaths.put(repoPath, cachedPath));
+		}
+	}
+
+	@Override
+	public Optional<String> findCommitSha(Path contentPath) {
+		// the entry is only asked for once, right after retrieval
+		return Optional.ofNullable(commitShas.remove(contentPath));
+	}
+
+	@Override
+	public CopyResult copyRepositoryContents(Path contentPath, Path targetPath) {
+		commitShas.remove(contentPath);
+		Path cachedPath = cachedContentPaths.remove(contentPath);
+		if (repositoryCache == null || cachedPath == null) {
+			return SourceRepositoryService.super.copyRepositoryContents(contentPath, targetPath);
+		}
+		return new FileCopier().copyDirectory(contentPath, targetPath, cachedPath, repositoryCache.getLinkMode(),
+				GitSourceRepositoryService::isLinkable);
+	}
+
+	/**
+	 * Whether a file of a created project may be linked from the repository cache. The
+	 * pom, the application class and configuration files are edited in place by commands
+	 * such as {@code boot add}, and by users, so they are always copied and writes never
+	 * go through a link into the cache.
+	 */
+	private static boolean isLinkable(Path file) {
+		String fileName = file.getFileName().toString();
+		String extension = StringUtils.getFilenameExtension(fileName);
+		if (fileName.equals("pom.xml") || "properties".equals(extension) || "yml".equals(extension)
+				|| "yaml".equals(extension)) {
+			return false;
+		}
+		if ("java".equals(extension)) {
+			try {
+				return !Files.readString(file).contains("@SpringBootApplication");
+			}
+			catch (IOException ex) {
+				return false;
+			}
+		}
+		return true;
 	}
 
 	/**
@@ -200,15 +434,8 @@ public class GitSourceRepositoryService implements SourceRepositoryService {
 	private Path retrieveGitLabRepositoryContents(GitRepoUrlRef url, Path targetPath) {
 		try {
 			URI gitUri = new URI(url.getRepoUrl().toString());
-			String token = getToken(gitUri.getHost());
-			if (token == null) {
-				throw new SpringCliException("Access token not provided for " + gitUri);
-			}
-			GitLabApi gitLabApi = new GitLabApi(gitUri.getScheme() + "://" + gitUri.getHost(), token);
-			String repo = gitUri.getPath().substring(1);
-			if (repo.endsWith(".git")) {
-				repo = repo.substring(0, repo.length() - 4);
-			}
+			GitLabApi gitLabApi = connectGitLab(gitUri);
+			String repo = getRepoName(gitUri);
 
 			String refSha = null;
 			if (StringUtils.hasText(url.getRef())) {
@@ -226,36 +453,56 @@ public class GitSourceRepositoryService implements SourceRepositoryService {
 					}
 				}
 			}
-			File tarfile = gitLabApi.getRepositoryApi().getRepositoryArchive(repo, refSha, targetPath.toFile(),
-					ArchiveFormat.TAR_GZ);
-			logger.debug("Wrote GitLab Repo " + repo + " to " + tarfile.getAbsolutePath());
-
-			File targetFile = targetPath.toFile();
-			Archiver archiver = ArchiverFactory.createArchiver("tar", "gz");
-			try {
-				archiver.extract(tarfile, targetPath.toFile());
-			} catch (Exception e) {
-				throw new SpringCliException(String.format("Extraction error to %s", targetFile.getAbsolutePath()), e);
-			}
-
-			String zipDirName = tarfile.getName().substring(0, tarfile.getName().indexOf('.'));
-			if (!tarfile.delete()) {
-				logger.warn("Not able to delete zip file " + tarfile.getAbsolutePath());
-			}
-			Path contentPath;
-			if (StringUtils.hasText(url.getSubPath())) {
-				contentPath = Paths.get(targetPath.toFile().getAbsolutePath(), zipDirName, url.getSubPath());
-			}
-			else {
-				contentPath = Paths.get(targetPath.toFile().getAbsolutePath(), zipDirName);
+			else if (repositoryCache != null) {
+				refSha = resolveGitLabDefaultBranchSha(gitLabApi, repo);
 			}
-			return contentPath;
+			String project = repo;
+			String commitSha = refSha;
+			return retrieveCachedOrDownload(url, commitSha, targetPath,
+					(downloadPath) -> downloadGitLabRepositoryContents(gitLabApi, project, commitSha, url.getSubPath(),
+							downloadPath));
 		}
 		catch (URISyntaxException | GitLabApiException e) {
 			throw new SpringCliException("Failed processing " + url, e);
 		}
 	}
 
+	private GitLabApi connectGitLab(URI gitUri) {
+		String token = getToken(gitUri.getHost());
+		if (token == null) {
+			throw new SpringCliException("Access token not provided for " + gitUri);
+		}
+		return clientCache.getGitLab(gitUri.getScheme() + "://" + gitUri.getHost(), token);
+	}
+
+	@Nullable
+	private String resolveGitLabDefaultBranchSha(GitLabApi gitLabApi, String repo) {
+		try {
+			String defaultBranch = gitLabApi.getProjectApi().getProject(repo).getDefaultBranch();
+			return gitLabApi.getRepositoryApi().getBranch(repo, defaultBranch).getCommit().getId();
+		}
+		catch (GitLabApiException ex) {
+			logger.debug("Could not resolve default branch commit of " + repo, ex);
+			return null;
+		}
+	}
+
+	private void downloadGitLabRepositoryContents(GitLabApi gitLabApi, String repo, @Nullable String refSha,
+			@Nullable String subPath, Path repoPath) {
+		try (InputStream inputStream = gitLabApi.getRepositoryApi().getRepositoryArchive(repo, refSha,
+				ArchiveFormat.TAR_GZ)) {
+			int extracted = TarGzExtractor.extract(inputStream, repoPath, subPath);
+			logger.debug("Extracted GitLab Repo " + repo + " to " + repoPath.toFile().getAbsolutePath());
+			checkSubPathExtracted(repo, subPath, extracted);
+		}
+		catch (IOException e) {
+			throw new SpringCliException(String.format("Extraction error to %s", repoPath.toFile().getAbsolutePath()), e);
+		}
+		catch (GitLabApiException e) {
+			throw new SpringCliException("Failed processing " + repo, e);
+		}
+	}
+
 	private String getToken(String host) {
 		Map<String, Host> hosts = userConfig.getHosts();
 		if (hosts != null) {
@@ -0,0 +1,410 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cli.git;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.cli.SpringCliException;
+import org.springframework.cli.util.FileCopier;
+import org.springframework.cli.util.FileCopier.LinkMode;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * Content addressed cache of retrieved source repositories. Entries are keyed by the
+ * repository URL, the commit SHA the requested ref resolved to and the optional sub
+ * path that was retrieved, so a hit never needs more than a ref lookup against the
+ * remote. A sub path request is also served from a cached full repository. The total
+ * size of the cache is capped and least recently used entries are evicted when it
+ * grows beyond that. Cached contents are never modified, so files that a caller does not
+ * change can be linked from them according to the cache's {@link LinkMode}.
+ */
+public class RepositoryCache {
+
+	private static final Logger logger = LoggerFactory.getLogger(RepositoryCache.class);
+
+	private static final String CONTENT_DIR_NAME = "content";
+
+	private static final String ENTRY_FILE_NAME = "entry.properties";
+
+	private static final String TEMP_DIR_PREFIX = ".tmp-";
+
+	private final Path cacheDir;
+
+	private final long maxSize;
+
+	private final LinkMode linkMode;
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	/**
+	 * Creates a repository cache that never links to its contents.
+	 *
+	 * @param cacheDir the directory holding cache entries
+	 * @param maxSize the maximum size in bytes of all cached entries
+	 */
+	public RepositoryCache(Path cacheDir, long maxSize) {
+		this(cacheDir, maxSize, LinkMode.COPY);
+	}
+
+	/**
+	 * Creates a repository cache.
+	 *
+	 * @param cacheDir the directory holding cache entries
+	 * @param maxSize the maximum size in bytes of all cached entries
+	 * @param linkMode how unchanged files are materialized from cached contents, with
+	 * {@link LinkMode#HARDLINK} cached files are made read-only
+	 */
+	public RepositoryCache(Path cacheDir, long maxSize, LinkMode linkMode) {
+		Assert.notNull(cacheDir, "cacheDir must be set");
+		Assert.isTrue(maxSize > 0, "maxSize must be positive");
+		Assert.notNull(linkMode, "linkMode must be set");
+		this.cacheDir = cacheDir;
+		this.maxSize = maxSize;
+		this.linkMode = linkMode;
+	}
+
+	/**
+	 * Returns how unchanged files are materialized from cached contents.
+	 *
+	 * @return the link mode
+	 */
+	public LinkMode getLinkMode() {
+		return linkMode;
+	}
+
+	/**
+	 * Copies a cached repository into the target directory.
+	 *
+	 * @param repoUrl the repository URL
+	 * @param commitSha the commit SHA the requested ref resolved to
+	 * @param subPath the path within the repository, or {@code null} for all of it
+	 * @param targetPath the directory to copy the cached contents into
+	 * @return true if the entry was found and copied, false otherwise
+	 */
+	public boolean copyTo(String repoUrl, String commitSha, @Nullable String subPath, Path targetPath) {
+		lock.readLock().lock();
+		try {
+			Optional<Path> entryDir = findEntry(repoUrl, commitSha, subPath);
+			if (entryDir.isEmpty()) {
+				return false;
+			}
+			Path contentDir = contentDir(entryDir.get(), repoUrl, commitSha, subPath);
+			// keeps modification times, so unchanged copies can later be linked back
+			new FileCopier().copyDirectory(contentDir, targetPath);
+			if (linkMode == LinkMode.HARDLINK) {
+				setWritable(targetPath, true);
+			}
+			Files.setLastModifiedTime(entryDir.get().resolve(ENTRY_FILE_NAME),
+					FileTime.fromMillis(System.currentTimeMillis()));
+			logger.debug("Repository cache hit for " + repoUrl + " at " + commitSha);
+			return true;
+		}
+		catch (IOException ex) {
+			logger.warn("Could not read cached repository " + repoUrl + " at " + commitSha, ex);
+			return false;
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Returns the directory holding the cached contents of a repository. The contents
+	 * must not be modified and may be evicted at any time.
+	 *
+	 * @param repoUrl the repository URL
+	 * @param commitSha the commit SHA the requested ref resolved to
+	 * @param subPath the path within the repository, or {@code null} for all of it
+	 * @return the cached contents directory, if the repository is cached
+	 */
+	public Optional<Path> findContent(String repoUrl, String commitSha, @Nullable String subPath) {
+		lock.readLock().lock();
+		try {
+			return findEntry(repoUrl, commitSha, subPath)
+					.map(entryDir -> contentDir(entryDir, repoUrl, commitSha, subPath));
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Finds the commit SHA of the most recently used cached copy of a repository ref,
+	 * for use when the ref cannot be resolved against the remote.
+	 *
+	 * @param repoUrl the repository URL
+	 * @param ref the requested ref, or {@code null} for the default branch
+	 * @param subPath the path within the repository, or {@code null} for all of it
+	 * @return the commit SHA of the cached copy, if any
+	 */
+	public Optional<String> findLatestCommitSha(String repoUrl, @Nullable String ref, @Nullable String subPath) {
+		if (!Files.isDirectory(cacheDir)) {
+			return Optional.empty();
+		}
+		lock.readLock().lock();
+		try (Stream<Path> paths = Files.list(cacheDir)) {
+			return paths.filter(p -> !p.getFileName().toString().startsWith(TEMP_DIR_PREFIX))
+					.map(this::readEntry)
+					.flatMap(Optional::stream)
+					.filter(entry -> entry.matches(repoUrl, ref, subPath))
+					.max(Comparator.comparing(CacheEntry::lastAccess))
+					.map(entry -> entry.properties().getProperty("sha"));
+		}
+		catch (IOException ex) {
+			logger.debug("Could not list cached repositories in " + cacheDir, ex);
+			return Optional.empty();
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Stores a copy of retrieved repository contents and evicts least recently used
+	 * entries if the cache has grown beyond its maximum size.
+	 *
+	 * @param repoUrl the repository URL
+	 * @param commitSha the commit SHA the contents were retrieved at
+	 * @param ref the ref that resolved to the commit, or {@code null} for the default
+	 * branch
+	 * @param subPath the path within the repository that was retrieved, or
+	 * {@code null} for all of it
+	 * @param contentPath the root directory of the retrieved contents
+	 */
+	public void put(String repoUrl, String commitSha, @Nullable String ref, @Nullable String subPath,
+			Path contentPath) {
+		String key = key(repoUrl, commitSha, subPath);
+		Path tempDir = cacheDir.resolve(TEMP_DIR_PREFIX + UUID.randomUUID());
+		try {
+			Files.createDirectories(cacheDir);
+			new FileCopier().copyDirectory(contentPath, tempDir.resolve(CONTENT_DIR_NAME));
+			if (linkMode == LinkMode.HARDLINK) {
+				// linked files share their permissions with the cache, protect it from
+				// in place writes through a link
+				setWritable(tempDir.resolve(CONTENT_DIR_NAME), false);
+			}
+			Properties entry = new Properties();
+			entry.setProperty("url", repoUrl);
+			entry.setProperty("sha", commitSha);
+			if (StringUtils.hasText(ref)) {
+				entry.setProperty("ref", ref);
+			}
+			if (StringUtils.hasText(subPath)) {
+				entry.setProperty("subPath", subPath);
+			}
+			entry.setProperty("size", Long.toString(sizeOf(tempDir)));
+			try (OutputStream out = Files.newOutputStream(tempDir.resolve(ENTRY_FILE_NAME))) {
+				entry.store(out, null);
+			}
+			lock.writeLock().lock();
+			try {
+				moveIntoPlace(tempDir, cacheDir.resolve(key));
+				evict();
+			}
+			finally {
+				lock.writeLock().unlock();
+			}
+			logger.debug("Cached repository " + repoUrl + " at " + commitSha);
+		}
+		catch (IOException ex) {
+			logger.warn("Could not cache repository " + repoUrl + " at " + commitSha, ex);
+		}
+		finally {
+			deleteQuietly(tempDir);
+		}
+	}
+
+	/**
+	 * Removes all entries from the cache.
+	 */
+	public void clear() {
+		lock.writeLock().lock();
+		try {
+			FileSystemUtils.deleteRecursively(cacheDir);
+		}
+		catch (IOException ex) {
+			throw new SpringCliException("Could not clear repository cache " + cacheDir, ex);
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	private Optional<Path> findEntry(String repoUrl, String commitSha, @Nullable String subPath) {
+		Path entryDir = cacheDir.resolve(key(repoUrl, commitSha, subPath));
+		if (Files.isDirectory(entryDir.resolve(CONTENT_DIR_NAME))) {
+			return Optional.of(entryDir);
+		}
+		if (StringUtils.hasText(subPath)) {
+			// fall back to a cached copy of the whole repository
+			entryDir = cacheDir.resolve(key(repoUrl, commitSha, null));
+			if (Files.isDirectory(entryDir.resolve(CONTENT_DIR_NAME).resolve(subPath))) {
+				return Optional.of(entryDir);
+			}
+		}
+		return Optional.empty();
+	}
+
+	private Path contentDir(Path entryDir, String repoUrl, String commitSha, @Nullable String subPath) {
+		Path contentDir = entryDir.resolve(CONTENT_DIR_NAME);
+		if (StringUtils.hasText(subPath) && entryDir.equals(cacheDir.resolve(key(repoUrl, commitSha, null)))) {
+			return contentDir.resolve(subPath);
+		}
+		return contentDir;
+	}
+
+	private static void setWritable(Path dir, boolean writable) throws IOException {
+		try (Stream<Path> paths = Files.walk(dir)) {
+			paths.filter(Files::isRegularFile).forEach(p -> p.toFile().setWritable(writable, false));
+		}
+	}
+
+	private void moveIntoPlace(Path tempDir, Path entryDir) throws IOException {
+		if (Files.exists(entryDir)) {
+			// another retrieval already cached the same commit
+			return;
+		}
+		try {
+			Files.move(tempDir, entryDir, StandardCopyOption.ATOMIC_MOVE);
+		}
+		catch (AtomicMoveNotSupportedException ex) {
+			Files.move(tempDir, entryDir);
+		}
+		catch (FileAlreadyExistsException ex) {
+			// lost the race against another process, keep its entry
+		}
+	}
+
+	private void evict() throws IOException {
+		List<CacheEntry> entries = new ArrayList<>();
+		try (Stream<Path> paths = Files.list(cacheDir)) {
+			paths.filter(p -> !p.getFileName().toString().startsWith(TEMP_DIR_PREFIX))
+					.forEach(p -> readEntry(p).ifPresent(entries::add));
+		}
+		long totalSize = entries.stream().mapToLong(CacheEntry::size).sum();
+		entries.sort(Comparator.comparing(CacheEntry::lastAccess));
+		for (CacheEntry entry : entries) {
+			if (totalSize <= maxSize) {
+				break;
+			}
+			logger.debug("Evicting cached repository " + entry.path());
+			FileSystemUtils.deleteRecursively(entry.path());
+			totalSize -= entry.size();
+		}
+	}
+
+	private Optional<CacheEntry> readEntry(Path entryDir) {
+		Path entryFile = entryDir.resolve(ENTRY_FILE_NAME);
+		if (!Files.isRegularFile(entryFile)) {
+			return Optional.empty();
+		}
+		Properties properties = new Properties();
+		try (InputStream in = Files.newInputStream(entryFile)) {
+			properties.load(in);
+			long size = Long.parseLong(properties.getProperty("size", "0"));
+			return Optional.of(new CacheEntry(entryDir, size, Files.getLastModifiedTime(entryFile), properties));
+		}
+		catch (IOException | NumberFormatException ex) {
+			logger.debug("Ignoring unreadable cache entry " + entryDir, ex);
+			return Optional.empty();
+		}
+	}
+
+	private static long sizeOf(Path dir) throws IOException {
+		try (Stream<Path> paths = Files.walk(dir)) {
+			return paths.mapToLong(p -> {
+				try {
+					BasicFileAttributes attributes = Files.readAttributes(p, BasicFileAttributes.class);
+					return attributes.isRegularFile() ? attributes.size() : 0;
+				}
+				catch (IOException ex) {
+					return 0;
+				}
+			}).sum();
+		}
+	}
+
+	private static void deleteQuietly(Path path) {
+		try {
+			FileSystemUtils.deleteRecursively(path);
+		}
+		catch (IOException ex) {
+			logger.warn("Could not delete path " + path, ex);
+		}
+	}
+
+	static String key(String repoUrl, String commitSha, @Nullable String subPath) {
+		String id = repoUrl + "#" + commitSha;
+		if (StringUtils.hasText(subPath)) {
+			id += "#" + subPath;
+		}
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			byte[] hash = digest.digest(id.getBytes(StandardCharsets.UTF_8));
+			return HexFormat.of().formatHex(hash);
+		}
+		catch (NoSuchAlgorithmException ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+
+	private record CacheEntry(Path path, long size, FileTime lastAccess, Properties properties) {
+
+		boolean matches(String repoUrl, @Nullable String ref, @Nullable String subPath) {
+			if (!repoUrl.equals(properties.getProperty("url"))
+					|| !Objects.equals(StringUtils.hasText(ref) ? ref : null, properties.getProperty("ref"))) {
+				return false;
+			}
+			String entrySubPath = properties.getProperty("subPath");
+			if (Objects.equals(StringUtils.hasText(subPath) ? subPath : null, entrySubPath)) {
+				return true;
+			}
+			// a whole repository also serves its sub paths
+			return entrySubPath == null && Files.isDirectory(path.resolve(CONTENT_DIR_NAME).resolve(subPath));
+		}
+
+	}
+
+}
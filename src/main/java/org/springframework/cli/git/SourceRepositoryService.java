@@ -17,6 +17,10 @@
 package org.springframework.cli.git;
 
 import java.nio.file.Path;
+import java.util.Optional;
+
+import org.springframework.cli.util.FileCopier;
+import org.springframework.cli.util.FileCopier.CopyResult;
 
 /**
  * @author Thomas Risberg
@@ -32,4 +36,41 @@ public interface SourceRepositoryService {
 	 */
 	Path retrieveRepositoryContents(String sourceRepoUrl);
 
+	/**
+	 * Retrieve a single file from a source repository, without retrieving the rest of the
+	 * repository where the source supports it.
+	 * @param sourceRepoUrl the URL of the repository, as supported by
+	 * {@link #retrieveRepositoryContents(String)}. A ref and sub path of the URL are
+	 * honored.
+	 * @param filePath the path of the file relative to the repository, or to its sub path
+	 * @return the full Path to a directory holding the file at {@code filePath}, it may
+	 * contain other files of the repository as well
+	 */
+	default Path retrieveRepositoryFile(String sourceRepoUrl, String filePath) {
+		return retrieveRepositoryContents(sourceRepoUrl);
+	}
+
+	/**
+	 * Find the commit that previously retrieved contents were taken from. The commit is
+	 * only remembered until it is found once.
+	 * @param contentPath the path returned by {@link #retrieveRepositoryContents(String)}
+	 * @return the SHA of the commit, empty if the source is not versioned or the commit
+	 * could not be resolved
+	 */
+	default Optional<String> findCommitSha(Path contentPath) {
+		return Optional.empty();
+	}
+
+	/**
+	 * Copy previously retrieved contents, which may have been modified since, into a
+	 * directory. Implementations may link files that are unchanged since retrieval
+	 * instead of copying them.
+	 * @param contentPath the path returned by {@link #retrieveRepositoryContents(String)}
+	 * @param targetPath the directory to copy the contents into
+	 * @return totals of the copy
+	 */
+	default CopyResult copyRepositoryContents(Path contentPath, Path targetPath) {
+		return new FileCopier().copyDirectory(contentPath, targetPath);
+	}
+
 }
@@ -0,0 +1,217 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cli.git;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.cli.SpringCliException;
+import org.springframework.lang.Nullable;
+import org.springframework.util.StringUtils;
+
+/**
+ * Extracts a tar.gz repository archive while it is being downloaded. Bytes are read
+ * from the network on a separate thread into a bounded buffer so the download overlaps
+ * with decompressing and writing entries, and memory use does not depend on the size
+ * of the archive.
+ *
+ * <p>Repository archives produced by GitHub and GitLab contain a single top level
+ * directory, this is stripped so entries are written directly into the target path.
+ * When a sub path is given only entries below it are written, everything else is
+ * skipped in the stream without touching the disk.
+ */
+public final class TarGzExtractor {
+
+	private static final Logger logger = LoggerFactory.getLogger(TarGzExtractor.class);
+
+	private static final int READ_AHEAD_BUFFER_SIZE = 1024 * 1024;
+
+	private static final int OWNER_EXECUTE = 0100;
+
+	private TarGzExtractor() {
+	}
+
+	/**
+	 * Extract a tar.gz stream into the target path.
+	 *
+	 * @param source the stream of the tar.gz archive, not closed by this method
+	 * @param targetPath the directory to write the archive contents to
+	 * @return the number of extracted entries
+	 * @throws IOException if reading the archive or writing its contents fails
+	 */
+	public static int extract(InputStream source, Path targetPath) throws IOException {
+		return extract(source, targetPath, null);
+	}
+
+	/**
+	 * Extract the part of a tar.gz stream below a sub path into the target path.
+	 *
+	 * @param source the stream of the tar.gz archive, not closed by this method
+	 * @param targetPath the directory to write the contents of the sub path to
+	 * @param subPath the path within the repository to extract, or {@code null} to
+	 * extract everything
+	 * @return the number of extracted entries
+	 * @throws IOException if reading the archive or writing its contents fails
+	 */
+	public static int extract(InputStream source, Path targetPath, @Nullable String subPath) throws IOException {
+		String prefix = normalizeSubPath(subPath);
+		PipedInputStream readAhead = new PipedInputStream(READ_AHEAD_BUFFER_SIZE);
+		PipedOutputStream download = new PipedOutputStream(readAhead);
+		AtomicReference<IOException> downloadError = new AtomicReference<>();
+		Thread downloader = new Thread(() -> {
+			try (download) {
+				source.transferTo(download);
+			}
+			catch (IOException ex) {
+				downloadError.set(ex);
+			}
+		}, "source-repository-download");
+		downloader.setDaemon(true);
+		downloader.start();
+
+		IOException extractError = null;
+		int extracted = 0;
+		try (readAhead) {
+			extracted = extractEntries(readAhead, targetPath, prefix);
+		}
+		catch (IOException ex) {
+			extractError = ex;
+		}
+		try {
+			downloader.join();
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new SpringCliException("Interrupted while downloading archive", ex);
+		}
+		if (extractError == null) {
+			// archive was read completely, the download may only have failed writing
+			// trailing padding after the reader closed the buffer
+			return extracted;
+		}
+		// a failed download truncates the archive, so report the root cause first
+		IOException error = downloadError.get();
+		if (error != null) {
+			error.addSuppressed(extractError);
+			throw error;
+		}
+		throw extractError;
+	}
+
+	private static int extractEntries(InputStream inputStream, Path targetPath, String prefix) throws IOException {
+		Path root = targetPath.toAbsolutePath().normalize();
+		Files.createDirectories(root);
+		int extracted = 0;
+		try (TarArchiveInputStream tarIn = new TarArchiveInputStream(
+				new GzipCompressorInputStream(new BufferedInputStream(inputStream)))) {
+			TarArchiveEntry entry;
+			while ((entry = tarIn.getNextTarEntry()) != null) {
+				String name = stripPrefix(stripRootDirectory(entry.getName()), prefix);
+				if (name == null || name.isEmpty()) {
+					continue;
+				}
+				extracted++;
+				Path entryPath = resolveEntry(root, name);
+				if (entry.isDirectory()) {
+					Files.createDirectories(entryPath);
+				}
+				else if (entry.isSymbolicLink()) {
+					createSymbolicLink(root, entryPath, entry.getLinkName());
+				}
+				else if (entry.isFile()) {
+					Files.createDirectories(entryPath.getParent());
+					try (OutputStream out = Files.newOutputStream(entryPath)) {
+						tarIn.transferTo(out);
+					}
+					if ((entry.getMode() & OWNER_EXECUTE) != 0) {
+						entryPath.toFile().setExecutable(true);
+					}
+				}
+				else {
+					logger.debug("Skipping unsupported archive entry " + entry.getName());
+				}
+			}
+		}
+		return extracted;
+	}
+
+	private static String stripRootDirectory(String name) {
+		int index = name.indexOf('/');
+		return index < 0 ? "" : name.substring(index + 1);
+	}
+
+	@Nullable
+	private static String stripPrefix(String name, String prefix) {
+		if (prefix.isEmpty()) {
+			return name;
+		}
+		if (name.equals(prefix) || name.equals(prefix + "/")) {
+			return "";
+		}
+		return name.startsWith(prefix + "/") ? name.substring(prefix.length() + 1) : null;
+	}
+
+	private static String normalizeSubPath(@Nullable String subPath) {
+		if (!StringUtils.hasText(subPath)) {
+			return "";
+		}
+		String prefix = StringUtils.cleanPath(subPath.trim());
+		while (prefix.startsWith("/")) {
+			prefix = prefix.substring(1);
+		}
+		while (prefix.endsWith("/")) {
+			prefix = prefix.substring(0, prefix.length() - 1);
+		}
+		return prefix;
+	}
+
+	private static Path resolveEntry(Path root, String name) {
+		Path entryPath = root.resolve(name).normalize();
+		if (!entryPath.startsWith(root)) {
+			throw new SpringCliException("Archive entry " + name + " is outside of " + root);
+		}
+		return entryPath;
+	}
+
+	private static void createSymbolicLink(Path root, Path entryPath, String linkName) {
+		Path linkTarget = entryPath.getParent().resolve(linkName).normalize();
+		if (!linkTarget.startsWith(root)) {
+			logger.debug("Skipping symbolic link " + entryPath + " pointing outside of " + root);
+			return;
+		}
+		try {
+			Files.createDirectories(entryPath.getParent());
+			Files.createSymbolicLink(entryPath, entryPath.getParent().relativize(linkTarget));
+		}
+		catch (IOException | UnsupportedOperationException ex) {
+			logger.debug("Could not create symbolic link " + entryPath, ex);
+		}
+	}
+
+}
@@ -15,17 +15,26 @@
  */
 package org.springframework.cli.initializr;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import reactor.core.publisher.Flux;
 
+import org.springframework.cli.SpringCliException;
 import org.springframework.cli.initializr.model.Metadata;
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.http.MediaType;
+import org.springframework.util.DigestUtils;
 import org.springframework.util.StringUtils;
 import org.springframework.web.reactive.function.client.WebClient;
 
@@ -77,6 +86,23 @@ public interface InitializrClient {
 		 */
 		Builder target(String baseUrl);
 
+		/**
+		 * Sets a directory where fetched metadata is kept for use while offline.
+		 *
+		 * @param cacheDir the cache directory
+		 * @return the builder
+		 */
+		Builder cacheDir(Path cacheDir);
+
+		/**
+		 * Sets whether the client works from cached metadata only and never contacts the
+		 * target system.
+		 *
+		 * @param offline the offline flag
+		 * @return the builder
+		 */
+		Builder offline(boolean offline);
+
 		/**
 		 * Builds an initializr client.
 		 *
@@ -98,6 +124,8 @@ public interface InitializrClient {
 	public static class DefaultBuilder implements Builder {
 
 		private String baseUrl;
+		private Path cacheDir;
+		private boolean offline;
 		private WebClient.Builder webClientBuilder;
 
 		DefaultBuilder(WebClient.Builder webClientBuilder) {
@@ -109,25 +137,51 @@ public interface InitializrClient {
 			return this;
 		}
 
+		public Builder cacheDir(Path cacheDir) {
+			this.cacheDir = cacheDir;
+			return this;
+		}
+
+		public Builder offline(boolean offline) {
+			this.offline = offline;
+			return this;
+		}
+
 		public InitializrClient build() {
 			WebClient client = webClientBuilder
 					.baseUrl(this.baseUrl)
 					.build();
-			return new DefaultInitializrClient(client, this.baseUrl);
+			Path metadataFile = null;
+			if (this.cacheDir != null) {
+				String key = DigestUtils.md5DigestAsHex(this.baseUrl.getBytes(StandardCharsets.UTF_8));
+				metadataFile = this.cacheDir.resolve("metadata-" + key + ".json");
+			}
+			return new DefaultInitializrClient(client, this.baseUrl, metadataFile, this.offline);
 		}
 	}
 
 	public static class DefaultInitializrClient implements InitializrClient {
 
+		private static final Logger logger = LoggerFactory.getLogger(DefaultInitializrClient.class);
 		private final static MediaType INITIALIZER_MEDIA_TYPE = new MediaType("application", "vnd.initializr.v2.2+json");
+		private final static ObjectMapper METADATA_MAPPER = new ObjectMapper()
+				.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
 		private WebClient client;
 		private Metadata metadata;
 		private AtomicBoolean connected = new AtomicBoolean(false);
 		private String baseUrl;
+		private Path metadataFile;
+		private boolean offline;
 
 		public DefaultInitializrClient(WebClient client, String baseUrl) {
+			this(client, baseUrl, null, false);
+		}
+
+		public DefaultInitializrClient(WebClient client, String baseUrl, Path metadataFile, boolean offline) {
 			this.client = client;
 			this.baseUrl = baseUrl;
+			this.metadataFile = metadataFile;
+			this.offline = offline;
 		}
 
 		@Override
@@ -154,6 +208,10 @@ public interface InitializrClient {
 		public Path generate(String projectType, String languageType, String bootVersion, List<String> dependencies,
 				String version, String groupId, String artifact, String name, String description, String packageName, String packaging,
 				String javaVersion) {
+			if (offline) {
+				throw new SpringCliException("Cannot generate a project with " + baseUrl
+						+ " while offline. Run the command without --offline.");
+			}
 			try {
 				Path tmp = Files.createTempFile("initializrcli", null);
 				Flux<DataBuffer> dataBuffer = client.get()
@@ -181,10 +239,47 @@ public interface InitializrClient {
 		}
 
 		private void updateMetadata() {
-			this.metadata = client.get()
+			if (offline) {
+				this.metadata = readCachedMetadata();
+				return;
+			}
+			String json = client.get()
 				.accept(INITIALIZER_MEDIA_TYPE)
 				.retrieve()
-				.toEntity(Metadata.class).block().getBody();
+				.bodyToMono(String.class).block();
+			this.metadata = parseMetadata(json);
+			if (metadataFile != null) {
+				try {
+					Files.createDirectories(metadataFile.getParent());
+					Files.writeString(metadataFile, json);
+				}
+				catch (IOException e) {
+					// metadata is only cached for later use while offline
+					logger.debug("Could not cache initializr metadata in " + metadataFile, e);
+				}
+			}
+		}
+
+		private Metadata readCachedMetadata() {
+			if (metadataFile == null || !Files.isRegularFile(metadataFile)) {
+				throw new SpringCliException("No cached metadata for " + baseUrl
+						+ " while offline. Run the command once without --offline.");
+			}
+			try {
+				return parseMetadata(Files.readString(metadataFile));
+			}
+			catch (IOException e) {
+				throw new SpringCliException("Could not read cached metadata for " + baseUrl, e);
+			}
+		}
+
+		private static Metadata parseMetadata(String json) {
+			try {
+				return METADATA_MAPPER.readValue(json, Metadata.class);
+			}
+			catch (JsonProcessingException e) {
+				throw new SpringCliException("Could not parse metadata", e);
+			}
 		}
 	}
 }
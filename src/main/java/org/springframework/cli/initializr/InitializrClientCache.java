@@ -15,9 +15,11 @@
  */
 package org.springframework.cli.initializr;
 
+import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.Map;
 
+import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 import org.springframework.web.reactive.function.client.WebClient;
 
@@ -29,11 +31,26 @@ import org.springframework.web.reactive.function.client.WebClient;
 public class InitializrClientCache {
 
 	private final WebClient.Builder webClientBuilder;
+	private final Path cacheDir;
+	private final boolean offline;
 	private final Map<String, InitializrClient> cache = new HashMap<>();
 
 	public InitializrClientCache(WebClient.Builder webClientBuilder) {
+		this(webClientBuilder, null, false);
+	}
+
+	/**
+	 * Creates a client cache.
+	 *
+	 * @param webClientBuilder the webclient builder
+	 * @param cacheDir the directory where clients keep metadata for offline use, may be {@code null}
+	 * @param offline whether clients work from cached metadata only
+	 */
+	public InitializrClientCache(WebClient.Builder webClientBuilder, @Nullable Path cacheDir, boolean offline) {
 		Assert.notNull(webClientBuilder, "webClientBuilder must be set");
 		this.webClientBuilder = webClientBuilder;
+		this.cacheDir = cacheDir;
+		this.offline = offline;
 	}
 
 	/**
@@ -44,9 +61,13 @@ public class InitializrClientCache {
 	 */
 	public InitializrClient get(String url) {
 		return cache.computeIfAbsent(url, baseUrl -> {
-			return InitializrClient.builder(webClientBuilder)
+			InitializrClient.Builder builder = InitializrClient.builder(webClientBuilder)
 				.target(baseUrl)
-				.build();
+				.offline(offline);
+			if (cacheDir != null) {
+				builder.cacheDir(cacheDir);
+			}
+			return builder.build();
 		});
 	}
 }
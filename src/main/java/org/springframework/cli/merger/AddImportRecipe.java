@@ -17,17 +17,28 @@
 
 package org.springframework.cli.merger;
 
+import java.util.List;
+
 import org.openrewrite.ExecutionContext;
 import org.openrewrite.Recipe;
+import org.openrewrite.Tree;
 import org.openrewrite.TreeVisitor;
+import org.openrewrite.internal.lang.Nullable;
 import org.openrewrite.java.AddImport;
 
+/**
+ * Adds imports to Java sources, applying all of them in a single recipe run.
+ */
 public class AddImportRecipe extends Recipe {
 
-	private AddImport addImport;
+	private final List<AddImport> addImports;
 
 	public AddImportRecipe(AddImport addImport) {
-		this.addImport = addImport;
+		this(List.of(addImport));
+	}
+
+	public AddImportRecipe(List<AddImport> addImports) {
+		this.addImports = addImports;
 	}
 
 	@Override
@@ -37,6 +48,18 @@ public class AddImportRecipe extends Recipe {
 
 	@Override
 	protected TreeVisitor<?, ExecutionContext> getVisitor() {
-		return addImport;
+		if (addImports.size() == 1) {
+			return addImports.get(0);
+		}
+		return new TreeVisitor<Tree, ExecutionContext>() {
+			@Override
+			public Tree visit(@Nullable Tree tree, ExecutionContext executionContext) {
+				Tree result = tree;
+				for (AddImport addImport : addImports) {
+					result = addImport.visit(result, executionContext);
+				}
+				return result;
+			}
+		};
 	}
 }
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cli.merger;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * The plan of bringing the files of the projects to merge into the current project.
+ * Files are sorted into groups by what happens to them, so that each group can be carried
+ * out in bulk, or described instead of carried out for a dry run.
+ */
+class CopyPlan {
+
+	/**
+	 * What happens to a file of a project to merge.
+	 */
+	enum Action {
+
+		/**
+		 * The file is copied, the current project does not have it.
+		 */
+		COPY("Copy"),
+
+		/**
+		 * The file is a readme, it is copied under a name containing the project name.
+		 */
+		RENAME_README("Copy readme"),
+
+		/**
+		 * The properties of the file are merged into the file of the current project.
+		 */
+		MERGE_PROPERTIES("Merge properties"),
+
+		/**
+		 * The yaml of the file is merged into the file of the current project.
+		 */
+		MERGE_YAML("Merge yaml"),
+
+		/**
+		 * The file is not brought over.
+		 */
+		SKIP("Skip");
+
+		private final String label;
+
+		Action(String label) {
+			this.label = label;
+		}
+
+	}
+
+	/**
+	 * A planned file.
+	 *
+	 * @param source the file of the project to merge
+	 * @param destination the file in the current project
+	 * @param reason why the file is skipped, {@code null} for other actions
+	 */
+	record Entry(Path source, Path destination, @Nullable String reason) {
+	}
+
+	private final Path currentProjectPath;
+
+	private final Map<Action, List<Entry>> entries = new EnumMap<>(Action.class);
+
+	/**
+	 * Create a new plan.
+	 *
+	 * @param currentProjectPath the project the files are brought into
+	 */
+	CopyPlan(Path currentProjectPath) {
+		this.currentProjectPath = currentProjectPath;
+	}
+
+	void add(Action action, Path source, Path destination) {
+		add(action, source, destination, null);
+	}
+
+	void add(Action action, Path source, Path destination, @Nullable String reason) {
+		this.entries.computeIfAbsent(action, (key) -> new ArrayList<>()).add(new Entry(source, destination, reason));
+	}
+
+	List<Entry> getEntries(Action action) {
+		return this.entries.getOrDefault(action, List.of());
+	}
+
+	/**
+	 * Gets the files to copy, including renamed readme files.
+	 *
+	 * @return the destinations by source, in plan order
+	 */
+	Map<Path, Path> getCopies() {
+		Map<Path, Path> copies = new LinkedHashMap<>();
+		for (Action action : List.of(Action.COPY, Action.RENAME_README)) {
+			for (Entry entry : getEntries(action)) {
+				copies.put(entry.source(), entry.destination());
+			}
+		}
+		return copies;
+	}
+
+	/**
+	 * Gets the files to merge for one of the merge actions, so that each destination is
+	 * read and written once.
+	 *
+	 * @param action {@link Action#MERGE_PROPERTIES} or {@link Action#MERGE_YAML}
+	 * @return the sources by destination, in plan order
+	 */
+	Map<Path, List<Path>> getMerges(Action action) {
+		Map<Path, List<Path>> merges = new LinkedHashMap<>();
+		for (Entry entry : getEntries(action)) {
+			merges.computeIfAbsent(entry.destination(), (key) -> new ArrayList<>()).add(entry.source());
+		}
+		return merges;
+	}
+
+	/**
+	 * Describes the plan, one line per file, with paths relative to the current project.
+	 *
+	 * @return the lines
+	 */
+	List<String> describe() {
+		List<String> lines = new ArrayList<>();
+		for (Action action : Action.values()) {
+			for (Entry entry : getEntries(action)) {
+				StringBuilder line = new StringBuilder(action.label).append(' ')
+						.append(this.currentProjectPath.relativize(entry.destination()));
+				if (entry.reason() != null) {
+					line.append(" (").append(entry.reason()).append(')');
+				}
+				lines.add(line.toString());
+			}
+		}
+		return lines;
+	}
+
+}
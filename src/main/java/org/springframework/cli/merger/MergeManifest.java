@@ -0,0 +1,231 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cli.merger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.UUID;
+
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.DependencyManagement;
+import org.apache.maven.model.Model;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * Records what a merge took from a project, so that adding the same project again only
+ * processes what changed upstream since. A manifest holds the source URL, the commit the
+ * contents were retrieved at, the content hashes of the files of the project and the
+ * pom entries it contributed. Manifests are stored as properties files under
+ * {@code .spring/merges} of the current project, one per source URL.
+ */
+class MergeManifest {
+
+	private static final Logger logger = LoggerFactory.getLogger(MergeManifest.class);
+
+	static final Path MANIFEST_DIR = Path.of(".spring", "merges");
+
+	private static final String SOURCE_KEY = "source";
+
+	private static final String SHA_KEY = "sha";
+
+	private static final String FILE_PREFIX = "file.";
+
+	private static final String PROPERTY_PREFIX = "pom.property.";
+
+	private static final String DEPENDENCY_PREFIX = "pom.dependency.";
+
+	private static final String MANAGED_DEPENDENCY_PREFIX = "pom.managedDependency.";
+
+	private static final int HASH_BUFFER_SIZE = 8192;
+
+	private final Properties properties;
+
+	private MergeManifest(Properties properties) {
+		this.properties = properties;
+	}
+
+	/**
+	 * Creates the manifest of a merge.
+	 *
+	 * @param sourceUrl the URL the project was retrieved from
+	 * @param commitSha the commit the project was retrieved at, or {@code null} if unknown
+	 * @param model the pom of the project
+	 * @param fileHashes the content hashes of the files of the project, by relative path
+	 * @return the manifest
+	 */
+	static MergeManifest create(String sourceUrl, @Nullable String commitSha, Model model,
+			Map<String, String> fileHashes) {
+		Properties properties = new Properties();
+		properties.setProperty(SOURCE_KEY, sourceUrl);
+		if (commitSha != null) {
+			properties.setProperty(SHA_KEY, commitSha);
+		}
+		fileHashes.forEach((path, hash) -> properties.setProperty(FILE_PREFIX + path, hash));
+		model.getProperties().stringPropertyNames()
+				.forEach((key) -> properties.setProperty(PROPERTY_PREFIX + key, model.getProperties().getProperty(key)));
+		for (Dependency dependency : model.getDependencies()) {
+			properties.setProperty(DEPENDENCY_PREFIX + dependency.getManagementKey(), describe(dependency));
+		}
+		DependencyManagement dependencyManagement = model.getDependencyManagement();
+		if (dependencyManagement != null) {
+			for (Dependency dependency : dependencyManagement.getDependencies()) {
+				properties.setProperty(MANAGED_DEPENDENCY_PREFIX + dependency.getManagementKey(), describe(dependency));
+			}
+		}
+		return new MergeManifest(properties);
+	}
+
+	/**
+	 * Loads the manifest of a previous merge of a source.
+	 *
+	 * @param projectPath the current project
+	 * @param sourceUrl the URL the project to merge is retrieved from
+	 * @return the manifest, empty if the source was not merged before or the manifest can
+	 * not be read
+	 */
+	static Optional<MergeManifest> load(Path projectPath, String sourceUrl) {
+		Path manifestFile = manifestFile(projectPath, sourceUrl);
+		if (!Files.isRegularFile(manifestFile)) {
+			return Optional.empty();
+		}
+		Properties properties = new Properties();
+		try (InputStream in = Files.newInputStream(manifestFile)) {
+			properties.load(in);
+		}
+		catch (IOException ex) {
+			logger.debug("Ignoring unreadable merge manifest " + manifestFile, ex);
+			return Optional.empty();
+		}
+		if (!sourceUrl.equals(properties.getProperty(SOURCE_KEY))) {
+			return Optional.empty();
+		}
+		return Optional.of(new MergeManifest(properties));
+	}
+
+	/**
+	 * Stores the manifest in the current project, replacing the one of a previous merge of
+	 * the same source.
+	 *
+	 * @param projectPath the current project
+	 * @throws IOException if the manifest could not be written
+	 */
+	void store(Path projectPath) throws IOException {
+		Path manifestFile = manifestFile(projectPath, getSourceUrl());
+		Files.createDirectories(manifestFile.getParent());
+		Path tempFile = manifestFile.resolveSibling("." + manifestFile.getFileName() + "." + UUID.randomUUID() + ".tmp");
+		try {
+			try (OutputStream out = Files.newOutputStream(tempFile)) {
+				this.properties.store(out, "written by spring cli, do not edit");
+			}
+			try {
+				Files.move(tempFile, manifestFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			}
+			catch (AtomicMoveNotSupportedException ex) {
+				Files.move(tempFile, manifestFile, StandardCopyOption.REPLACE_EXISTING);
+			}
+		}
+		finally {
+			Files.deleteIfExists(tempFile);
+		}
+	}
+
+	String getSourceUrl() {
+		return this.properties.getProperty(SOURCE_KEY);
+	}
+
+	@Nullable
+	String getCommitSha() {
+		return this.properties.getProperty(SHA_KEY);
+	}
+
+	/**
+	 * Tells whether a file had the given content hash when the source was merged.
+	 *
+	 * @param path the path of the file relative to the project to merge
+	 * @param hash the current content hash of the file
+	 * @return {@code true} if the file is unchanged
+	 */
+	boolean isFileUnchanged(String path, @Nullable String hash) {
+		return hash != null && hash.equals(this.properties.getProperty(FILE_PREFIX + path));
+	}
+
+	boolean isPropertyUnchanged(String key, @Nullable String value) {
+		return Objects.equals(value, this.properties.getProperty(PROPERTY_PREFIX + key));
+	}
+
+	boolean isDependencyUnchanged(Dependency dependency) {
+		return describe(dependency).equals(this.properties.getProperty(DEPENDENCY_PREFIX + dependency.getManagementKey()));
+	}
+
+	boolean isManagedDependencyUnchanged(Dependency dependency) {
+		return describe(dependency)
+				.equals(this.properties.getProperty(MANAGED_DEPENDENCY_PREFIX + dependency.getManagementKey()));
+	}
+
+	/**
+	 * Computes the content hash of a file.
+	 *
+	 * @param file the file
+	 * @return the hex encoded SHA-256 of the file's bytes
+	 * @throws IOException if the file could not be read
+	 */
+	static String hash(Path file) throws IOException {
+		MessageDigest digest = sha256();
+		byte[] buffer = new byte[HASH_BUFFER_SIZE];
+		try (InputStream in = Files.newInputStream(file)) {
+			int read;
+			while ((read = in.read(buffer)) != -1) {
+				digest.update(buffer, 0, read);
+			}
+		}
+		return HexFormat.of().formatHex(digest.digest());
+	}
+
+	private static Path manifestFile(Path projectPath, String sourceUrl) {
+		String name = HexFormat.of().formatHex(sha256().digest(sourceUrl.getBytes(StandardCharsets.UTF_8)));
+		return projectPath.resolve(MANIFEST_DIR).resolve(name + ".properties");
+	}
+
+	private static String describe(Dependency dependency) {
+		return Objects.toString(dependency.getVersion(), "") + "|" + Objects.toString(dependency.getScope(), "");
+	}
+
+	private static MessageDigest sha256() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		}
+		catch (NoSuchAlgorithmException ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+
+}
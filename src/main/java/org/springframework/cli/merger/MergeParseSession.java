@@ -0,0 +1,187 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cli.merger;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.Recipe;
+import org.openrewrite.Result;
+import org.openrewrite.SourceFile;
+import org.openrewrite.java.Java17Parser;
+import org.openrewrite.java.JavaParser;
+import org.openrewrite.maven.MavenParser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.cli.SpringCliException;
+
+/**
+ * Parses the files touched by a merge at most once, using one parser per language, and
+ * keeps the parsed trees in memory while recipes are applied to them across the merge
+ * phases. Changed files are written once, by {@link #write()}.
+ */
+class MergeParseSession {
+
+	private static final Logger logger = LoggerFactory.getLogger(MergeParseSession.class);
+
+	private final Path projectPath;
+
+	private final ExecutionContext executionContext = new InMemoryExecutionContext(
+			e -> logger.error("error in parser execution", e));
+
+	private JavaParser javaParser;
+
+	private MavenParser mavenParser;
+
+	private final Map<Path, SourceFile> sourceFiles = new HashMap<>();
+
+	private final Map<Path, String> textContents = new HashMap<>();
+
+	private final Set<Path> changedPaths = new LinkedHashSet<>();
+
+	/**
+	 * Create a new session.
+	 *
+	 * @param projectPath the project directory, maven files are parsed relative to it
+	 */
+	MergeParseSession(Path projectPath) {
+		this.projectPath = projectPath;
+	}
+
+	/**
+	 * Gets the parsed Java source, parsing it on first use.
+	 *
+	 * @param path the Java file
+	 * @return the current tree of the file
+	 */
+	SourceFile getJavaSource(Path path) {
+		return this.sourceFiles.computeIfAbsent(path, (key) -> {
+			if (this.javaParser == null) {
+				this.javaParser = new Java17Parser.Builder().build();
+			}
+			else {
+				// sources are parsed one at a time, previously parsed ones must not clash
+				this.javaParser.reset();
+			}
+			return single(this.javaParser.parse(List.of(path), null, this.executionContext), path);
+		});
+	}
+
+	/**
+	 * Gets the parsed maven pom, parsing it on first use.
+	 *
+	 * @param path the pom file
+	 * @return the current tree of the file
+	 */
+	SourceFile getMavenSource(Path path) {
+		return this.sourceFiles.computeIfAbsent(path, (key) -> {
+			if (this.mavenParser == null) {
+				this.mavenParser = MavenParser.builder().build();
+			}
+			return single(this.mavenParser.parse(List.of(path), this.projectPath, this.executionContext), path);
+		});
+	}
+
+	/**
+	 * Runs a recipe against a parsed file, keeping the changed tree for later recipes and
+	 * for writing.
+	 *
+	 * @param recipe the recipe to run
+	 * @param path the parsed file
+	 * @return {@code true} if the recipe changed the file
+	 */
+	boolean run(Recipe recipe, Path path) {
+		SourceFile sourceFile = this.sourceFiles.get(path);
+		if (sourceFile == null) {
+			throw new IllegalStateException("File " + path + " has not been parsed");
+		}
+		List<Result> results = recipe.run(List.of(sourceFile)).getResults();
+		for (Result result : results) {
+			if (result.getAfter() != null) {
+				this.sourceFiles.put(path, result.getAfter());
+				this.changedPaths.add(path);
+			}
+		}
+		return !results.isEmpty();
+	}
+
+	/**
+	 * Gets the current content of a file, as changed so far in this session.
+	 *
+	 * @param path the file
+	 * @return the content
+	 * @throws IOException if the file has not been changed and could not be read
+	 */
+	String getContent(Path path) throws IOException {
+		String content = this.textContents.get(path);
+		if (content != null) {
+			return content;
+		}
+		SourceFile sourceFile = this.sourceFiles.get(path);
+		if (sourceFile != null && this.changedPaths.contains(path)) {
+			return sourceFile.printAllTrimmed();
+		}
+		return Files.readString(path);
+	}
+
+	/**
+	 * Replaces the content of a file with text edited outside of recipes. The file can
+	 * not be used with recipes anymore afterwards.
+	 *
+	 * @param path the file
+	 * @param content the new content
+	 */
+	void setContent(Path path, String content) {
+		this.sourceFiles.remove(path);
+		this.textContents.put(path, content);
+		this.changedPaths.add(path);
+	}
+
+	/**
+	 * Writes the files changed in this session.
+	 *
+	 * @throws IOException if a file could not be written
+	 */
+	void write() throws IOException {
+		for (Path path : this.changedPaths) {
+			String content = getContent(path);
+			try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+				writer.write(content);
+			}
+		}
+		logger.debug("Wrote " + this.changedPaths.size() + " changed files");
+		this.changedPaths.clear();
+	}
+
+	private static SourceFile single(List<? extends SourceFile> sourceFiles, Path path) {
+		if (sourceFiles.isEmpty()) {
+			throw new SpringCliException("Could not parse " + path);
+		}
+		return sourceFiles.get(0);
+	}
+
+}
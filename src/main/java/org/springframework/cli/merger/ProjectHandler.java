@@ -11,10 +11,13 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.Consumer;
 
-import org.apache.tools.ant.util.FileUtils;
-import org.codehaus.plexus.util.DirectoryScanner;
 import org.jline.utils.AttributedStringBuilder;
 import org.jline.utils.AttributedStyle;
 import org.openrewrite.InMemoryExecutionContext;
@@ -27,15 +30,17 @@ import org.slf4j.LoggerFactory;
 import org.springframework.cli.SpringCliException;
 import org.springframework.cli.config.SpringCliUserConfig;
 import org.springframework.cli.config.SpringCliUserConfig.CommandDefaults;
-import org.springframework.cli.config.SpringCliUserConfig.ProjectCatalog;
-import org.springframework.cli.config.SpringCliUserConfig.ProjectRepositories;
+import org.springframework.cli.config.SpringCliUserConfig.IndexedProject;
 import org.springframework.cli.config.SpringCliUserConfig.ProjectRepository;
 import org.springframework.cli.git.SourceRepositoryService;
+import org.springframework.cli.merger.ProjectMerger.MergeSource;
 import org.springframework.cli.recipe.RecipeUtils;
-import org.springframework.cli.support.configfile.YamlConfigFile;
+import org.springframework.cli.util.FileCopier;
 import org.springframework.cli.util.IoUtils;
 import org.springframework.cli.util.JavaUtils;
 import org.springframework.cli.util.PackageNameUtils;
+import org.springframework.cli.util.ProjectCatalogIndexer;
+import org.springframework.cli.util.ProjectFileIndex;
 import org.springframework.cli.util.ProjectInfo;
 import org.springframework.cli.util.RefactorUtils;
 import org.springframework.cli.util.RootPackageFinder;
@@ -45,8 +50,6 @@ import org.springframework.util.Assert;
 import org.springframework.util.FileSystemUtils;
 import org.springframework.util.StringUtils;
 
-import static org.springframework.cli.config.SpringCliUserConfig.PROJECT_CATALOGS_FILE_NAME;
-
 /**
  * Contain features to create and modify projects. This is kept outside
  * of terminal classes to make things easier to test.
@@ -62,6 +65,7 @@ public class ProjectHandler {
 
 	private final SpringCliUserConfig springCliUserConfig;
 	private final SourceRepositoryService sourceRepositoryService;
+	private final ProjectCatalogIndexer projectCatalogIndexer;
 
 	private final TerminalMessage terminalMessage;
 
@@ -70,15 +74,18 @@ public class ProjectHandler {
 	 *
 	 * @param springCliUserConfig the user config
 	 * @param sourceRepositoryService the repo service
+	 * @param projectCatalogIndexer the index used to resolve project names
 	 * @param terminalMessage the terminal to write user messages to
 	 */
 	public ProjectHandler(SpringCliUserConfig springCliUserConfig, SourceRepositoryService sourceRepositoryService,
-			TerminalMessage terminalMessage) {
+			ProjectCatalogIndexer projectCatalogIndexer, TerminalMessage terminalMessage) {
 		Assert.notNull(springCliUserConfig, "springCliUserConfig must be set");
 		Assert.notNull(sourceRepositoryService, "sourceRepositoryService must be set");
+		Assert.notNull(projectCatalogIndexer, "projectCatalogIndexer must be set");
 		Assert.notNull(terminalMessage, "terminalMessage must be set");
 		this.springCliUserConfig = springCliUserConfig;
 		this.sourceRepositoryService = sourceRepositoryService;
+		this.projectCatalogIndexer = projectCatalogIndexer;
 		this.terminalMessage = terminalMessage;;
 	}
 
@@ -143,35 +150,117 @@ public class ProjectHandler {
 	 * @param path the project path
 	 */
 	public void add(String from, String path) {
-		// Will return string or throw exception
-		String urlToUse = getProjectRepositoryUrl(from);
-		// Will return string
-		String projectName = getProjectNameUsingFrom(from);
+		add(List.of(from), path);
+	}
 
-		AttributedStringBuilder sb = new AttributedStringBuilder();
-		sb.style(sb.style().foreground(AttributedStyle.WHITE));
-		sb.append("Getting project with URL " + urlToUse);
-		this.terminalMessage.print(sb.toAttributedString());
+	/**
+	 * Adds and merges projects in one pass. The projects are fetched concurrently and
+	 * merged in the given order.
+	 *
+	 * @param from the names or URLs of the projects
+	 * @param path the project path
+	 */
+	public void add(List<String> from, String path) {
+		add(from, path, false);
+	}
+
+	/**
+	 * Adds and merges projects in one pass. The projects are fetched concurrently and
+	 * merged in the given order.
+	 *
+	 * @param from the names or URLs of the projects
+	 * @param path the project path
+	 * @param dryRun whether to only print what would be changed
+	 */
+	public void add(List<String> from, String path, boolean dryRun) {
+		Assert.notEmpty(from, "At least one project to add must be given");
+		List<Callable<MergeSource>> fetchTasks = new ArrayList<>();
+		for (String fromItem : from) {
+			// Will return string or throw exception
+			String urlToUse = getProjectRepositoryUrl(fromItem);
+			// Will return string
+			String projectName = getProjectNameUsingFrom(fromItem);
 
+			AttributedStringBuilder sb = new AttributedStringBuilder();
+			sb.style(sb.style().foreground(AttributedStyle.WHITE));
+			sb.append("Getting project with URL " + urlToUse);
+			this.terminalMessage.print(sb.toAttributedString());
+
+			fetchTasks.add(() -> {
+				Path repositoryContentsPath = sourceRepositoryService.retrieveRepositoryContents(urlToUse);
+				String commitSha = sourceRepositoryService.findCommitSha(repositoryContentsPath).orElse(null);
+				return new MergeSource(repositoryContentsPath, projectName, urlToUse, commitSha);
+			});
+		}
 
-		Path repositoryContentsPath = sourceRepositoryService.retrieveRepositoryContents(urlToUse);
+		List<MergeSource> mergeSources = retrieveRepositoryContents(fetchTasks);
 		Path projectDir = IoUtils.getProjectPath(path);
 		Path workingPath = projectDir != null ? projectDir : IoUtils.getWorkingDirectory();
 
-		ProjectMerger projectMerger = new ProjectMerger(repositoryContentsPath, workingPath, projectName, this.terminalMessage);
-		projectMerger.merge();
 		try {
-			FileSystemUtils.deleteRecursively(repositoryContentsPath);
-		} catch (IOException ex) {
-			logger.warn("Could not delete path " + repositoryContentsPath, ex);
+			ProjectMerger projectMerger = new ProjectMerger(mergeSources, workingPath, this.terminalMessage, dryRun);
+			projectMerger.merge();
+		}
+		finally {
+			for (MergeSource mergeSource : mergeSources) {
+				deleteRepositoryContents(mergeSource.projectPath());
+			}
+		}
+		if (dryRun) {
+			return;
 		}
-		sb = new AttributedStringBuilder();
+		AttributedStringBuilder sb = new AttributedStringBuilder();
 		sb.style(sb.style().foreground(AttributedStyle.GREEN));
 		sb.append(System.lineSeparator());
 		sb.append("Done!");
 		terminalMessage.print(sb.toAttributedString());
 	}
 
+	private List<MergeSource> retrieveRepositoryContents(List<Callable<MergeSource>> fetchTasks) {
+		ExecutorService executor = Executors.newFixedThreadPool(fetchTasks.size(), runnable -> {
+			Thread thread = new Thread(runnable, "project-fetcher");
+			thread.setDaemon(true);
+			return thread;
+		});
+		List<MergeSource> mergeSources = new ArrayList<>();
+		try {
+			List<Future<MergeSource>> futures = executor.invokeAll(fetchTasks);
+			SpringCliException failure = null;
+			for (Future<MergeSource> future : futures) {
+				try {
+					mergeSources.add(future.get());
+				}
+				catch (ExecutionException ex) {
+					if (failure == null) {
+						failure = (ex.getCause() instanceof SpringCliException springCliException) ? springCliException
+								: new SpringCliException("Could not retrieve project contents.", ex.getCause());
+					}
+				}
+			}
+			if (failure != null) {
+				// don't leave the contents of the projects that could be fetched behind
+				mergeSources.forEach((mergeSource) -> deleteRepositoryContents(mergeSource.projectPath()));
+				throw failure;
+			}
+			return mergeSources;
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new SpringCliException("Interrupted while retrieving project contents.", ex);
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private void deleteRepositoryContents(Path repositoryContentsPath) {
+		try {
+			FileSystemUtils.deleteRecursively(repositoryContentsPath);
+		} catch (IOException ex) {
+			logger.warn("Could not delete path " + repositoryContentsPath, ex);
+		}
+	}
+
 	private String getProjectNameUsingFrom(String from) {
 		// Check it if is a URL, then use just the last part of the name as the 'project name'
 		try {
@@ -206,11 +295,11 @@ public class ProjectHandler {
 		}
 	}
 
-	private Optional<String> getRootPackageName(Path workingPath) {
+	private Optional<String> getRootPackageName(ProjectFileIndex projectFileIndex) {
 		// Derive fromPackage using location of existing @SpringBootApplication class.
 		// TODO warning if find multiple @SpringBootApplication classes.
-		logger.debug("Looking for @SpringBootApplication in directory " + workingPath.toFile());
-		Optional<String> rootPackage = RootPackageFinder.findRootPackage(workingPath.toFile());
+		logger.debug("Looking for @SpringBootApplication in directory " + projectFileIndex.getRoot().toFile());
+		Optional<String> rootPackage = RootPackageFinder.findRootPackage(projectFileIndex);
 		if (rootPackage.isEmpty()) {
 			AttributedStringBuilder sb = new AttributedStringBuilder();
 			sb.style(sb.style().foreground(AttributedStyle.YELLOW));
@@ -251,7 +340,8 @@ public class ProjectHandler {
 		Path repositoryContentsPath = sourceRepositoryService.retrieveRepositoryContents(url);
 
 		// Get existing package name
-		Optional<String> existingPackageName = this.getRootPackageName(repositoryContentsPath);
+		ProjectFileIndex projectFileIndex = ProjectFileIndex.of(repositoryContentsPath);
+		Optional<String> existingPackageName = this.getRootPackageName(projectFileIndex);
 
 		// Refactor package name if have both a new package name and can identify the package name in newly cloned project
 		if (StringUtils.hasText(projectInfo.getPackageName()) && existingPackageName.isPresent()) {
@@ -261,7 +351,7 @@ public class ProjectHandler {
 			sb.style(sb.style().foreground(AttributedStyle.WHITE));
 			sb.append("package to " + projectInfo.getPackageName());
 			terminalMessage.print(sb.toAttributedString());
-			RefactorUtils.refactorPackage(projectInfo.getPackageName(), existingPackageName.get(), repositoryContentsPath);
+			RefactorUtils.refactorPackage(projectInfo.getPackageName(), existingPackageName.get(), projectFileIndex);
 		}
 
 
@@ -270,28 +360,9 @@ public class ProjectHandler {
 
 
 		// Copy files
-		File fromDir = repositoryContentsPath.toFile();
-
-		DirectoryScanner ds = new DirectoryScanner();
-		ds.setBasedir(fromDir);
-		ds.scan();
-		String[] fileNames = ds.getIncludedFiles();
-
-		toDir.mkdirs();
-		for (String fileName : fileNames) {
-			File srcFile = new File(fromDir, fileName);
-			File destFile = new File(toDir, fileName);
-			logger.debug("Copy from " + srcFile + " to " + destFile);
-			try {
-				FileUtils.getFileUtils().copyFile(srcFile, destFile);
-				if (srcFile.canExecute()) {
-					destFile.setExecutable(true);
-				}
-			} catch (IOException e) {
-				throw new SpringCliException(
-						"Could not copy files from " + fromDir.getAbsolutePath() + " to " + toDir.getAbsolutePath());
-			}
-		}
+		FileCopier.CopyResult copyResult = sourceRepositoryService.copyRepositoryContents(repositoryContentsPath,
+				toDir.toPath());
+		logger.debug("Copied " + copyResult + " from " + repositoryContentsPath + " to " + toDir);
 		try {
 			FileSystemUtils.deleteRecursively(repositoryContentsPath);
 		} catch (IOException ex) {
@@ -375,22 +446,9 @@ public class ProjectHandler {
 			if (url != null) return url;
 		}
 
-		List<ProjectCatalog> projectCatalogs = springCliUserConfig.getProjectCatalogs().getProjectCatalogs();
-		if (projectCatalogs != null) {
-			for (ProjectCatalog projectCatalog : projectCatalogs) {
-				String url = projectCatalog.getUrl();
-				Path path = sourceRepositoryService.retrieveRepositoryContents(url);
-				YamlConfigFile yamlConfigFile = new YamlConfigFile();
-				projectRepositories = yamlConfigFile.read(Paths.get(path.toString(), "project-catalog.yml"),
-						ProjectRepositories.class).getProjectRepositories();
-				try {
-					FileSystemUtils.deleteRecursively(path);
-				} catch (IOException ex) {
-					logger.warn("Could not delete path " + path, ex);
-				}
-				url = findUrlFromProjectRepositories(projectName, projectRepositories);
-				if (url != null) return url;
-			}
+		Optional<IndexedProject> indexedProject = projectCatalogIndexer.findByName(projectName);
+		if (indexedProject.isPresent()) {
+			return indexedProject.get().getUrl();
 		}
 
 		throw new SpringCliException("Could not resolve project name " + projectName
@@ -17,51 +17,41 @@
 
 package org.springframework.cli.merger;
 
-import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.io.PrintWriter;
-import java.nio.charset.Charset;
-import java.nio.charset.StandardCharsets;
+import java.io.InputStream;
+import java.io.Writer;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Properties;
 import java.util.Set;
-import java.util.function.Consumer;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.commons.io.FilenameUtils;
 import org.apache.maven.model.Dependency;
 import org.apache.maven.model.DependencyManagement;
 import org.apache.maven.model.Model;
-import org.apache.tools.ant.util.FileUtils;
-import org.codehaus.plexus.util.DirectoryScanner;
 import org.jline.utils.AttributedStringBuilder;
 import org.jline.utils.AttributedStyle;
-import org.openrewrite.ExecutionContext;
-import org.openrewrite.InMemoryExecutionContext;
-import org.openrewrite.RecipeRun;
-import org.openrewrite.Result;
 import org.openrewrite.SourceFile;
 import org.openrewrite.java.AddImport;
-import org.openrewrite.java.Java17Parser;
-import org.openrewrite.java.JavaParser;
 import org.openrewrite.java.tree.J.Annotation;
 import org.openrewrite.maven.AddDependency;
 import org.openrewrite.maven.AddManagedDependency;
 import org.openrewrite.maven.ChangePropertyValue;
-import org.openrewrite.maven.MavenParser;
-import org.openrewrite.xml.tree.Xml.Document;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.yaml.snakeyaml.DumperOptions;
@@ -70,16 +60,21 @@ import org.yaml.snakeyaml.Yaml;
 import org.springframework.beans.factory.config.YamlMapFactoryBean;
 import org.springframework.beans.factory.config.YamlProcessor.ResolutionMethod;
 import org.springframework.cli.SpringCliException;
+import org.springframework.cli.merger.CopyPlan.Action;
+import org.springframework.cli.util.FileCopier;
 import org.springframework.cli.util.PomReader;
+import org.springframework.cli.util.ProjectFileIndex;
+import org.springframework.cli.util.ProjectFileIndex.IndexedFile;
 import org.springframework.cli.util.RootPackageFinder;
 import org.springframework.cli.util.TerminalMessage;
 import org.springframework.core.io.FileSystemResource;
+import org.springframework.lang.Nullable;
 
 import static org.springframework.cli.util.PropertyFileUtils.mergeProperties;
 import static org.springframework.cli.util.RefactorUtils.refactorPackage;
 
 /**
- * Performs the refactoring steps to merge two Spring projects
+ * Performs the refactoring steps to merge one or more Spring projects into the current one
  *
  * @author Mark Pollack
  */
@@ -87,14 +82,14 @@ public class ProjectMerger {
 
 	private static final Logger logger = LoggerFactory.getLogger(ProjectMerger.class);
 
-	private Path toMergeProjectPath;
+	private final List<MergeSource> mergeSources;
 
-	private Path currentProjectPath;
-
-	private String projectName;
+	private final Path currentProjectPath;
 
 	private final TerminalMessage terminalMessage;
 
+	private final boolean dryRun;
+
 	/**
 	 * Create a new instance
 	 *
@@ -104,75 +99,182 @@ public class ProjectMerger {
 	 * @param terminalMessage terminal to write user messages to
 	 */
 	public ProjectMerger(Path toMergeProjectPath, Path currentProjectPath, String projectName, TerminalMessage terminalMessage) {
-		this.toMergeProjectPath = toMergeProjectPath;
+		this(List.of(new MergeSource(toMergeProjectPath, projectName)), currentProjectPath, terminalMessage);
+	}
+
+	/**
+	 * Create a new instance merging several projects in one pass.
+	 *
+	 * @param mergeSources the projects to merge, in the order their changes are applied
+	 * @param currentProjectPath The Path where the current project is located
+	 * @param terminalMessage terminal to write user messages to
+	 */
+	public ProjectMerger(List<MergeSource> mergeSources, Path currentProjectPath, TerminalMessage terminalMessage) {
+		this(mergeSources, currentProjectPath, terminalMessage, false);
+	}
+
+	/**
+	 * Create a new instance merging several projects in one pass.
+	 *
+	 * @param mergeSources the projects to merge, in the order their changes are applied
+	 * @param currentProjectPath The Path where the current project is located
+	 * @param terminalMessage terminal to write user messages to
+	 * @param dryRun whether to only print what would be changed, leaving the current
+	 * project untouched
+	 */
+	public ProjectMerger(List<MergeSource> mergeSources, Path currentProjectPath, TerminalMessage terminalMessage,
+			boolean dryRun) {
+		this.mergeSources = List.copyOf(mergeSources);
 		this.currentProjectPath = currentProjectPath;
-		this.projectName = projectName;
 		this.terminalMessage = terminalMessage;
+		this.dryRun = dryRun;
 	}
 
 	public void merge() {
 		PomReader pomReader = new PomReader();
-		Path toMergeProjectPomPath = this.toMergeProjectPath.resolve("pom.xml");
-		if (Files.notExists(toMergeProjectPomPath)) {
-			throw new SpringCliException("Could not find pom.xml in " + this.toMergeProjectPath);
-		}
 		Path currentProjectPomPath = this.currentProjectPath.resolve("pom.xml");
 		if (Files.notExists(currentProjectPomPath)) {
 			throw new SpringCliException("Could not find pom.xml in " + this.currentProjectPath + ".  Make sure you are running the command in the project's root directory or specify the --path option.");
 		}
 		Model currentModel = pomReader.readPom(currentProjectPomPath.toFile());
-		Model toMergeModel = pomReader.readPom(toMergeProjectPomPath.toFile());
+		List<SourceMerge> sourceMerges = new ArrayList<>();
+		for (MergeSource mergeSource : this.mergeSources) {
+			Path toMergeProjectPomPath = mergeSource.projectPath().resolve("pom.xml");
+			if (Files.notExists(toMergeProjectPomPath)) {
+				throw new SpringCliException("Could not find pom.xml in " + mergeSource.projectPath());
+			}
+			Model toMergeModel = pomReader.readPom(toMergeProjectPomPath.toFile());
+			MergerPreCheck mergerPreCheck = new MergerPreCheck();
+			mergerPreCheck.canMergeProject(currentModel, toMergeModel, mergeSource.projectPath());
+
+			MergeManifest previousManifest = (mergeSource.sourceUrl() != null)
+					? MergeManifest.load(this.currentProjectPath, mergeSource.sourceUrl()).orElse(null) : null;
+			if (previousManifest != null && mergeSource.commitSha() != null
+					&& mergeSource.commitSha().equals(previousManifest.getCommitSha())) {
+				AttributedStringBuilder sb = new AttributedStringBuilder();
+				sb.style(sb.style().foreground(AttributedStyle.WHITE));
+				sb.append("Project " + mergeSource.sourceUrl() + " was already merged at commit " + mergeSource.commitSha() + ", skipping");
+				terminalMessage.print(sb.toAttributedString());
+				continue;
+			}
+			sourceMerges.add(new SourceMerge(mergeSource, toMergeModel, previousManifest));
+		}
+		if (sourceMerges.isEmpty()) {
+			return;
+		}
 
-		List<Path> paths = new ArrayList<>();
-		paths.add(currentProjectPomPath);
-		MavenParser mavenParser = MavenParser.builder().build();
+		try {
+			// Files of the current project are parsed once and written back at the end
+			MergeParseSession parseSession = new MergeParseSession(this.currentProjectPath);
+			if (this.dryRun) {
+				AttributedStringBuilder sb = new AttributedStringBuilder();
+				sb.style(sb.style().foreground(AttributedStyle.WHITE));
+				sb.append(System.lineSeparator());
+				sb.append("Changes that would be made to " + this.currentProjectPath + ":");
+				terminalMessage.print(sb.toAttributedString());
+			}
 
-		MergerPreCheck mergerPreCheck = new MergerPreCheck();
-		mergerPreCheck.canMergeProject(currentModel, toMergeModel, this.toMergeProjectPath);
+			// Maven merges, the changes of all projects go into the once parsed pom
+			List<Dependency> currentDependencies = new ArrayList<>(currentModel.getDependencies());
+			for (SourceMerge sourceMerge : sourceMerges) {
+				mergeMaven(parseSession, currentProjectPomPath, currentDependencies, sourceMerge);
+			}
+
+			// Code Refactoring, the projects to merge are indexed and refactored in parallel
+			ProjectFileIndex currentProjectIndex = ProjectFileIndex.of(this.currentProjectPath);
+			List<ProjectFileIndex> toMergeProjectIndexes = indexToMergeCodebases(sourceMerges);
+			toMergeProjectIndexes = refactorToMergeCodebases(currentProjectIndex, sourceMerges, toMergeProjectIndexes);
 
-		try {
-			// Maven merges
-			mergeMavenProperties(currentProjectPomPath, toMergeModel);
-			mergeMavenDependencyManagement(currentProjectPomPath, toMergeModel, paths, mavenParser);
-			mergeMavenDependencies(currentProjectPomPath, currentModel, toMergeModel, paths, mavenParser);
-
-			// Code Refactoring
-			refactorToMergeCodebase();
-			copyToMergeCodebase();
 			// Copy and merge files
+			copyToMergeCodebases(currentProjectIndex, sourceMerges, toMergeProjectIndexes);
 
-			mergeSpringBootApplicationClassAnnotations();
+			mergeSpringBootApplicationClassAnnotations(parseSession, currentProjectIndex, sourceMerges,
+					toMergeProjectIndexes);
+
+			if (this.dryRun) {
+				return;
+			}
+			parseSession.write();
+
+			// Remember what was merged so that adding the projects again only processes changes
+			for (SourceMerge sourceMerge : sourceMerges) {
+				MergeSource mergeSource = sourceMerge.source;
+				if (mergeSource.sourceUrl() != null) {
+					MergeManifest.create(mergeSource.sourceUrl(), mergeSource.commitSha(), sourceMerge.model,
+							sourceMerge.fileHashes).store(this.currentProjectPath);
+				}
+			}
 		} catch (IOException ex) {
 			throw new SpringCliException("Error merging projects.", ex);
 		}
 	}
 
+	private void mergeSpringBootApplicationClassAnnotations(MergeParseSession parseSession,
+			ProjectFileIndex currentProjectIndex, List<SourceMerge> sourceMerges,
+			List<ProjectFileIndex> toMergeProjectIndexes) throws IOException {
+
+		Map<String, String> annotationImportMap = new LinkedHashMap<>();
+		for (int i = 0; i < sourceMerges.size(); i++) {
+			if (sourceMerges.get(i).applicationUnchanged) {
+				// the annotations were merged before
+				continue;
+			}
+			collectSpringBootApplicationClassAnnotations(parseSession, toMergeProjectIndexes.get(i), annotationImportMap);
+		}
 
+		if (!annotationImportMap.isEmpty()) {
+			logger.debug("Looking for @SpringBootApplication in directory " + this.currentProjectPath.toFile());
+			Optional<File> currentSpringBootApplicationFile = RootPackageFinder.findSpringBootApplicationFile(currentProjectIndex);
+			if (currentSpringBootApplicationFile.isPresent()) {
+				Path currentSpringBootApplicationPath = currentSpringBootApplicationFile.get().toPath();
+				parseSession.getJavaSource(currentSpringBootApplicationPath);
+				List<AddImport> addImports = new ArrayList<>();
+				for (String importStatement : annotationImportMap.values()) {
+					addImports.add(new AddImport(importStatement, null, false));
+				}
+				// all imports are added in one recipe run
+				if (!parseSession.run(new AddImportRecipe(addImports), currentSpringBootApplicationPath)) {
+					logger.debug("No update of SpringApplication class in " + currentSpringBootApplicationPath);
+				}
 
+				if (!this.dryRun) {
+					AttributedStringBuilder sb = new AttributedStringBuilder();
+					sb.style(sb.style().foreground(AttributedStyle.WHITE));
+					sb.append("Adding import statements and annotations to @SpringApplication class");
+					terminalMessage.print(sb.toAttributedString());
+				}
 
+				List<String> annotations = new ArrayList<>(annotationImportMap.keySet());
+				for (String annotation : annotations) {
+					printMerge("Main Spring Boot Application class annotation: " + annotation);
+				}
+				String content = parseSession.getContent(currentSpringBootApplicationPath);
+				parseSession.setContent(currentSpringBootApplicationPath,
+						injectAnnotations(currentSpringBootApplicationPath, content, annotations));
+				//AddAnnotationToClassRecipe addAnnotationToClassRecipe = new AddAnnotationToClassRecipe(annotation);
+				//results = addAnnotationToClassRecipe.run(compilationUnits);
+				//updateSpringApplicationClass(currentSpringBootApplicationFile.get().toPath(), results);
+			}
+		}
 
-	private void mergeSpringBootApplicationClassAnnotations() throws IOException {
 
-		logger.debug("Looking for @SpringBootApplication in directory " + this.toMergeProjectPath.toFile());
-		Optional<File> springBootApplicationFile = RootPackageFinder.findSpringBootApplicationFile(this.toMergeProjectPath.toFile());
+
+	}
+
+	private void collectSpringBootApplicationClassAnnotations(MergeParseSession parseSession,
+			ProjectFileIndex toMergeProjectIndex, Map<String, String> annotationImportMap) {
+
+		logger.debug("Looking for @SpringBootApplication in directory " + toMergeProjectIndex.getRoot().toFile());
+		Optional<File> springBootApplicationFile = RootPackageFinder.findSpringBootApplicationFile(toMergeProjectIndex);
 
 		if (springBootApplicationFile.isPresent()) {
 			CollectAnnotationAndImportInformationRecipe collectAnnotationAndImportInformationRecipe = new CollectAnnotationAndImportInformationRecipe();
-			Consumer<Throwable> onError = e -> {
-				logger.error("error in javaParser execution", e);
-			};
-			InMemoryExecutionContext executionContext = new InMemoryExecutionContext(onError);
-			List<Path> paths = new ArrayList<>();
-			paths.add(springBootApplicationFile.get().toPath());
-			JavaParser javaParser = new Java17Parser.Builder().build();
-			List<? extends SourceFile> compilationUnits = javaParser.parse(paths, null, executionContext);
-			collectAnnotationAndImportInformationRecipe.run(compilationUnits);
+			SourceFile compilationUnit = parseSession.getJavaSource(springBootApplicationFile.get().toPath());
+			collectAnnotationAndImportInformationRecipe.run(List.of(compilationUnit));
 
 			List<Annotation> declaredAnnotations = collectAnnotationAndImportInformationRecipe.getDeclaredAnnotations();
 			List<String> declaredImports = collectAnnotationAndImportInformationRecipe.getDeclaredImports();
 
-
-			Map<String, String> annotationImportMap = new HashMap<>();
 			for (Annotation declaredAnnotation : declaredAnnotations) {
 				if (declaredAnnotation.toString().startsWith("@SpringBootApplication")) {
 					continue;
@@ -180,57 +282,22 @@ public class ProjectMerger {
 				for (String declaredImport : declaredImports) {
 					//get the import statement that matches the annotation
 					if (declaredImport.contains(declaredAnnotation.getSimpleName())) {
-						annotationImportMap.put(declaredAnnotation.toString(), declaredImport);
+						annotationImportMap.putIfAbsent(declaredAnnotation.toString(), declaredImport);
 					}
 				}
 			}
-
-			logger.debug("Looking for @SpringBootApplication in directory " + this.currentProjectPath.toFile());
-			Optional<File> currentSpringBootApplicationFile = RootPackageFinder.findSpringBootApplicationFile(this.currentProjectPath.toFile());
-			if (currentSpringBootApplicationFile.isPresent()) {
-				executionContext = new InMemoryExecutionContext(onError);
-				paths = new ArrayList<>();
-				paths.add(currentSpringBootApplicationFile.get().toPath());
-				javaParser = new Java17Parser.Builder().build();
-				compilationUnits = javaParser.parse(paths, null, executionContext);
-				for (Entry<String, String> annotationImportEntry : annotationImportMap.entrySet()) {
-					String annotation = annotationImportEntry.getKey();
-					String importStatement = annotationImportEntry.getValue();
-					AddImport addImport = new AddImport(importStatement, null, false);
-					AddImportRecipe addImportRecipe = new AddImportRecipe(addImport);
-					List<Result> results = addImportRecipe.run(compilationUnits).getResults();
-					updateSpringApplicationClass(currentSpringBootApplicationFile.get().toPath(), results);
-
-					AttributedStringBuilder sb = new AttributedStringBuilder();
-					sb.style(sb.style().foreground(AttributedStyle.WHITE));
-					sb.append("Merging Main Spring Boot Application class annotation: " + annotation);
-					terminalMessage.print(sb.toAttributedString());
-
-					injectAnnotation(currentSpringBootApplicationFile.get().toPath() ,annotation);
-					//AddAnnotationToClassRecipe addAnnotationToClassRecipe = new AddAnnotationToClassRecipe(annotation);
-					//results = addAnnotationToClassRecipe.run(compilationUnits);
-					//updateSpringApplicationClass(currentSpringBootApplicationFile.get().toPath(), results);
-				}
-			}
 		}
-
-
-
 	}
 
-	private void injectAnnotation(Path pathToFile, String annotation) {
-		try {
-			List<String> lines = Files.readAllLines(pathToFile);
-			int injectIndex = indexFromMarkerString("@SpringBootApplication", lines);
-			if (injectIndex != -1) {
-				lines.add(injectIndex + 1, annotation);
-				Files.write(pathToFile, lines, Charset.defaultCharset());
-			} else {
-				logger.debug("Did not add annotation" + annotation + " to file " + pathToFile);
-			}
-		} catch (IOException ex) {
-			throw new SpringCliException("Could not add annotation " + annotation + " to file " + pathToFile, ex);
+	private String injectAnnotations(Path pathToFile, String content, List<String> annotations) {
+		List<String> lines = new ArrayList<>(Arrays.asList(content.split("\n", -1)));
+		int injectIndex = indexFromMarkerString("@SpringBootApplication", lines);
+		if (injectIndex == -1) {
+			logger.debug("Did not add annotations" + annotations + " to file " + pathToFile);
+			return content;
 		}
+		lines.addAll(injectIndex + 1, annotations);
+		return String.join("\n", lines);
 	}
 
 	/**
@@ -254,58 +321,110 @@ public class ProjectMerger {
 		}
 	}
 
-	private void copyToMergeCodebase() throws IOException {
-		File fromDir = this.toMergeProjectPath.toFile();
-		File toDir = this.currentProjectPath.toFile();
-		DirectoryScanner ds = new DirectoryScanner();
-		ds.setBasedir(fromDir);
-		// TODO /** prob doesn't work on windows
-		ds.setExcludes(new String[]{ ".mvn/**", ".idea"});
-		ds.scan();
-		String[] fileNames = ds.getIncludedFiles();
-		Optional<File> springBootApplicationFile = RootPackageFinder.findSpringBootApplicationFile(this.toMergeProjectPath.toFile());
-		for (String fileName : fileNames) {
-			File srcFile = new File(fromDir, fileName);
-			File destFile = new File(toDir, fileName);
-			if (srcFile.getName().equals("pom.xml")  || srcFile.getName().equals("LICENSE")) {
+	/**
+	 * Brings the files of all projects to merge into the current project. The files are
+	 * first sorted into a {@link CopyPlan}, claiming destinations in the order of the
+	 * projects. The copies then run together in parallel, and each property and yaml file
+	 * of the current project is merged with all its counterparts at once. For a dry run
+	 * the plan is printed instead.
+	 */
+	private void copyToMergeCodebases(ProjectFileIndex currentProjectIndex, List<SourceMerge> sourceMerges,
+			List<ProjectFileIndex> toMergeProjectIndexes) throws IOException {
+		Set<Path> destinations = new HashSet<>();
+		for (IndexedFile indexedFile : currentProjectIndex.getFiles()) {
+			destinations.add(this.currentProjectPath.resolve(indexedFile.path()));
+		}
+		CopyPlan copyPlan = new CopyPlan(this.currentProjectPath);
+		for (int i = 0; i < sourceMerges.size(); i++) {
+			planCopyToMergeCodebase(sourceMerges.get(i).source, toMergeProjectIndexes.get(i), destinations, copyPlan);
+		}
+
+		if (this.dryRun) {
+			for (String line : copyPlan.describe()) {
+				terminalMessage.print("  " + line);
+			}
+			return;
+		}
+
+		FileCopier.CopyResult copyResult = new FileCopier().copy(copyPlan.getCopies());
+		logger.debug("Copied " + copyResult + " to " + this.currentProjectPath);
+
+		for (Map.Entry<Path, List<Path>> merge : copyPlan.getMerges(Action.MERGE_PROPERTIES).entrySet()) {
+			mergeAndWriteProperties(merge.getValue(), merge.getKey());
+		}
+		for (Map.Entry<Path, List<Path>> merge : copyPlan.getMerges(Action.MERGE_YAML).entrySet()) {
+			mergeAndWriteYaml(merge.getValue(), merge.getKey());
+		}
+	}
+
+	private void planCopyToMergeCodebase(MergeSource mergeSource, ProjectFileIndex toMergeProjectIndex,
+			Set<Path> destinations, CopyPlan copyPlan) {
+		Path fromDir = mergeSource.projectPath();
+		Path toDir = this.currentProjectPath;
+		Path springBootApplicationPath = RootPackageFinder.findSpringBootApplicationFile(toMergeProjectIndex)
+				.map(File::toPath).orElse(null);
+		for (IndexedFile indexedFile : toMergeProjectIndex.getFiles()) {
+			Path relativePath = indexedFile.path();
+			Path srcFile = fromDir.resolve(relativePath);
+			Path destFile = toDir.resolve(relativePath);
+			String fileName = relativePath.getFileName().toString();
+			if (relativePath.getName(0).toString().equals(".mvn") || fileName.equals(".idea")) {
+				copyPlan.add(Action.SKIP, srcFile, destFile, "tool configuration");
+				continue;
+			}
+			if (relativePath.startsWith(MergeManifest.MANIFEST_DIR)) {
+				copyPlan.add(Action.SKIP, srcFile, destFile, "merge manifest");
+				continue;
+			}
+			if (fileName.equals("pom.xml")) {
+				copyPlan.add(Action.SKIP, srcFile, destFile, "merged into the current pom");
+				continue;
+			}
+			if (fileName.equals("LICENSE")) {
+				copyPlan.add(Action.SKIP, srcFile, destFile, "license");
 				continue;
 			}
 			// hack to avoid bringing over any gradle files for now as this POC is maven only.
-			if (srcFile.getName().contains("gradle")) {
+			if (fileName.contains("gradle")) {
+				copyPlan.add(Action.SKIP, srcFile, destFile, "gradle file");
 				continue;
 			}
+			if (toMergeProjectIndex.getRoot().resolve(relativePath).equals(springBootApplicationPath)) {
+				copyPlan.add(Action.SKIP, srcFile, destFile, "annotations are merged into the application class");
+				continue;
+			}
+			Action copyAction = Action.COPY;
 			// Change readme file name have the project name that is being merged into the code base
-			if (FilenameUtils.getBaseName(srcFile.getName()).equalsIgnoreCase("README")) {
-				Path newFile = Paths.get(FilenameUtils.getPath(destFile.getName()),
-						FilenameUtils.getBaseName(destFile.getName())
-								+ "-" + projectName +
-								"." + FilenameUtils.getExtension(destFile.getName()));
-				destFile = new File(toDir, newFile.toFile().getName());
-			}
-			if (springBootApplicationFile.isPresent()) {
-				if (srcFile.equals(springBootApplicationFile.get())) {
-					continue;
-				}
+			if (FilenameUtils.getBaseName(fileName).equalsIgnoreCase("README")) {
+				destFile = toDir.resolve(FilenameUtils.getBaseName(fileName) + "-" + mergeSource.projectName() + "."
+						+ FilenameUtils.getExtension(fileName));
+				copyAction = Action.RENAME_README;
 			}
-			if (destFile.exists()) {
-				Optional<String> extension = getExtension(srcFile.getName());
+			// a file copied from a previous project to merge counts as existing
+			if (destinations.contains(destFile)) {
+				Optional<String> extension = getExtension(fileName);
 				if (extension.isPresent() && extension.get().equals("properties")) {
-					mergeAndWriteProperties(srcFile, destFile);
-				} else if (extension.isPresent() && (extension.get().equals("yaml") || extension.get().equals("yml")) ) {
-					mergeAndWriteYaml(srcFile, destFile);
+					copyPlan.add(Action.MERGE_PROPERTIES, srcFile, destFile);
+				} else if (extension.isPresent() && (extension.get().equals("yaml") || extension.get().equals("yml"))) {
+					copyPlan.add(Action.MERGE_YAML, srcFile, destFile);
 				} else {
 					logger.debug("WARNING: Not copying file as it already exists: " + srcFile);
+					copyPlan.add(Action.SKIP, srcFile, destFile, "already exists");
 				}
 				//TODO handle renaming readme.adoc etc.
 			} else {
 				logger.debug("Copying srcFile = " + srcFile + " to destFile = " + destFile);
-				FileUtils.getFileUtils().copyFile(srcFile, destFile);
+				copyPlan.add(copyAction, srcFile, destFile);
+				destinations.add(destFile);
 			}
-
 		}
 	}
 
-	private void mergeAndWriteYaml(File srcFile, File destFile) throws FileNotFoundException {
+	/**
+	 * Merges yaml files into a file of the current project, values of the current file
+	 * win over the merged ones and earlier merged files win over later ones.
+	 */
+	private void mergeAndWriteYaml(List<Path> srcFiles, Path destFile) throws IOException {
 
 		AttributedStringBuilder sb = new AttributedStringBuilder();
 		sb.style(sb.style().foreground(AttributedStyle.WHITE));
@@ -313,42 +432,61 @@ public class ProjectMerger {
 		sb.append("Merging Spring Boot application.yaml file...");
 		terminalMessage.print(sb.toAttributedString());
 
-
+		// later resources override earlier ones
+		List<FileSystemResource> resources = new ArrayList<>();
+		for (int i = srcFiles.size() - 1; i >= 0; i--) {
+			resources.add(new FileSystemResource(srcFiles.get(i)));
+		}
+		resources.add(new FileSystemResource(destFile));
 		YamlMapFactoryBean factory = new YamlMapFactoryBean();
 		factory.setResolutionMethod(ResolutionMethod.OVERRIDE_AND_IGNORE);
-		FileSystemResource srcFileResource = new FileSystemResource(srcFile);
-		FileSystemResource destFileResource = new FileSystemResource(destFile);
-		factory.setResources(srcFileResource, destFileResource);
+		factory.setResources(resources.toArray(new FileSystemResource[0]));
 		Map<String, Object> yamlAsMap = factory.getObject();
 		DumperOptions dumperOptions = new DumperOptions();
 		dumperOptions.setDefaultFlowStyle(DumperOptions.FlowStyle.BLOCK);
 		dumperOptions.setPrettyFlow(true);
 		dumperOptions.setLineBreak(DumperOptions.LineBreak.getPlatformLineBreak());
 		Yaml yaml = new Yaml(dumperOptions);
-		destFile.delete();
-		yaml.dump(yamlAsMap, new PrintWriter(destFile));
+		try (Writer writer = Files.newBufferedWriter(destFile)) {
+			yaml.dump(yamlAsMap, writer);
+		}
 	}
 
-	private void mergeAndWriteProperties(File srcFile, File destFile) throws IOException {
-
-
-		Properties srcProperties = new Properties();
-		Properties destProperties = new Properties();
-		srcProperties.load(new FileInputStream(srcFile));
-		destProperties.load(new FileInputStream(destFile));
-		Properties mergedProperties = mergeProperties(srcProperties, destProperties);
+	/**
+	 * Merges property files into a file of the current project, values of the current
+	 * file win over the merged ones and earlier merged files win over later ones.
+	 */
+	private void mergeAndWriteProperties(List<Path> srcFiles, Path destFile) throws IOException {
+		Properties[] properties = new Properties[srcFiles.size() + 1];
+		for (int i = 0; i < srcFiles.size(); i++) {
+			// later properties override earlier ones
+			properties[srcFiles.size() - 1 - i] = loadProperties(srcFiles.get(i));
+		}
+		Properties destProperties = loadProperties(destFile);
+		properties[srcFiles.size()] = destProperties;
+		Properties mergedProperties = mergeProperties(properties);
 		// look into handling a merge of maven-wrapper.properties - should only merge using latest versions.
-		if (!mergedProperties.equals(srcProperties)) {
+		if (!mergedProperties.equals(destProperties)) {
 
 			AttributedStringBuilder sb = new AttributedStringBuilder();
 			sb.style(sb.style().foreground(AttributedStyle.WHITE));
 			sb.append("Merging Spring Application property file...");
 			terminalMessage.print(sb.toAttributedString());
 
-			mergedProperties.store(new FileWriter(destFile), "updated by spring cli");
+			try (Writer writer = Files.newBufferedWriter(destFile)) {
+				mergedProperties.store(writer, "updated by spring cli");
+			}
 		}
 	}
 
+	private static Properties loadProperties(Path file) throws IOException {
+		Properties properties = new Properties();
+		try (InputStream in = Files.newInputStream(file)) {
+			properties.load(in);
+		}
+		return properties;
+	}
+
 	public Optional<String> getExtension(String filename) {
 		return Optional.ofNullable(filename)
 				.filter(f -> f.contains("."))
@@ -357,58 +495,201 @@ public class ProjectMerger {
 
 
 
-	private void refactorToMergeCodebase() {
+	/**
+	 * Indexes the projects to merge, each on its own thread. Files that are unchanged since
+	 * a previous merge of the same source are removed from the retrieved contents, so they
+	 * are neither refactored nor copied again. The pom and the
+	 * {@code @SpringBootApplication} class are kept, later phases read them.
+	 * @return the indexes of the projects to merge, in the order of the source merges
+	 */
+	private List<ProjectFileIndex> indexToMergeCodebases(List<SourceMerge> sourceMerges) {
+		List<Callable<ProjectFileIndex>> indexTasks = new ArrayList<>();
+		for (SourceMerge sourceMerge : sourceMerges) {
+			indexTasks.add(() -> indexToMergeCodebase(sourceMerge));
+		}
+		List<ProjectFileIndex> toMergeProjectIndexes = invokeAll(indexTasks);
+		for (SourceMerge sourceMerge : sourceMerges) {
+			if (sourceMerge.unchangedFiles > 0) {
+				AttributedStringBuilder sb = new AttributedStringBuilder();
+				sb.style(sb.style().foreground(AttributedStyle.WHITE));
+				sb.append("Skipping " + sourceMerge.unchangedFiles + " files of " + sourceMerge.source.projectName()
+						+ " that are unchanged since the last merge");
+				terminalMessage.print(sb.toAttributedString());
+			}
+		}
+		return toMergeProjectIndexes;
+	}
+
+	private ProjectFileIndex indexToMergeCodebase(SourceMerge sourceMerge) throws IOException {
+		Path toMergeProjectPath = sourceMerge.source.projectPath();
+		ProjectFileIndex toMergeProjectIndex = ProjectFileIndex.of(toMergeProjectPath);
+		Path springBootApplicationPath = RootPackageFinder.findSpringBootApplicationFile(toMergeProjectIndex)
+				.map(File::toPath).orElse(null);
+		for (IndexedFile indexedFile : toMergeProjectIndex.getFiles()) {
+			Path file = toMergeProjectIndex.getRoot().resolve(indexedFile.path());
+			// manifests use the same separator on all platforms
+			String manifestPath = indexedFile.path().toString().replace(File.separatorChar, '/');
+			String hash = MergeManifest.hash(file);
+			sourceMerge.fileHashes.put(manifestPath, hash);
+			if (sourceMerge.previousManifest == null || !sourceMerge.previousManifest.isFileUnchanged(manifestPath, hash)) {
+				continue;
+			}
+			if (file.equals(springBootApplicationPath)) {
+				sourceMerge.applicationUnchanged = true;
+			}
+			else if (!manifestPath.equals("pom.xml")) {
+				Files.delete(file);
+				sourceMerge.unchangedFiles++;
+			}
+		}
+		if (sourceMerge.unchangedFiles > 0) {
+			logger.debug("Removed " + sourceMerge.unchangedFiles + " unchanged files from " + toMergeProjectPath);
+			return ProjectFileIndex.of(toMergeProjectPath);
+		}
+		return toMergeProjectIndex;
+	}
 
+	/**
+	 * Moves the code of the projects to merge into the root package of the current
+	 * project. Each project is refactored on its own thread.
+	 * @return the indexes of the projects to merge after refactoring, in the order of the
+	 * source merges
+	 */
+	private List<ProjectFileIndex> refactorToMergeCodebases(ProjectFileIndex currentProjectIndex,
+			List<SourceMerge> sourceMerges, List<ProjectFileIndex> toMergeProjectIndexes) {
 		logger.debug("Looking for @SpringBootApplication in directory " + this.currentProjectPath.toFile());
-		Optional<String> currentRootPackageName = RootPackageFinder.findRootPackage(this.currentProjectPath.toFile());
+		Optional<String> currentRootPackageName = RootPackageFinder.findRootPackage(currentProjectIndex);
 		if (currentRootPackageName.isEmpty()) {
 			terminalMessage.print("Could not find root package containing class with @SpringBootApplication in " + this.currentProjectPath.toFile());
 			terminalMessage.print("Stopping");
-			return;
+			return toMergeProjectIndexes;
 		}
 
-		logger.debug("Looking for @SpringBootApplication in directory " + this.toMergeProjectPath.toFile());
-		Optional<String> toMergeRootPackageName = RootPackageFinder.findRootPackage(this.toMergeProjectPath.toFile());
-		if (toMergeRootPackageName.isEmpty()) {
-			terminalMessage.print("Could find not root package containing class with @SpringBootApplication in " + this.toMergeProjectPath.toFile());
-			terminalMessage.print("Stopping");
-			return;
+		List<Callable<ProjectFileIndex>> refactorTasks = new ArrayList<>();
+		for (int i = 0; i < sourceMerges.size(); i++) {
+			MergeSource mergeSource = sourceMerges.get(i).source;
+			ProjectFileIndex toMergeProjectIndex = toMergeProjectIndexes.get(i);
+			logger.debug("Looking for @SpringBootApplication in directory " + mergeSource.projectPath().toFile());
+			Optional<String> toMergeRootPackageName = RootPackageFinder.findRootPackage(toMergeProjectIndex);
+			if (toMergeRootPackageName.isEmpty()) {
+				terminalMessage.print("Could find not root package containing class with @SpringBootApplication in " + mergeSource.projectPath().toFile());
+				terminalMessage.print("Stopping");
+				refactorTasks.add(() -> toMergeProjectIndex);
+				continue;
+			}
+
+			AttributedStringBuilder sb = new AttributedStringBuilder();
+			sb.style(sb.style().foreground(AttributedStyle.WHITE));
+			sb.append("Refactoring code base that is to be merged to package name " + currentRootPackageName.get());
+			terminalMessage.print(sb.toAttributedString());
+			refactorTasks.add(() -> {
+				refactorPackage(currentRootPackageName.get(), toMergeRootPackageName.get(), toMergeProjectIndex);
+				logger.debug("look in " + mergeSource.projectPath() + " to see if refactoring of 'to merge code base' was done correctly");
+				// files were moved, index the refactored code base again
+				return ProjectFileIndex.of(mergeSource.projectPath());
+			});
 		}
+		return invokeAll(refactorTasks);
+	}
 
-		AttributedStringBuilder sb = new AttributedStringBuilder();
-		sb.style(sb.style().foreground(AttributedStyle.WHITE));
-		sb.append("Refactoring code base that is to be merged to package name " + currentRootPackageName.get());
-		terminalMessage.print(sb.toAttributedString());
-		refactorPackage(currentRootPackageName.get(), toMergeRootPackageName.get(), this.toMergeProjectPath);
-		logger.debug("look in " + this.toMergeProjectPath + " to see if refactoring of 'to merge code base' was done correctly");
+	private static <T> List<T> invokeAll(List<Callable<T>> tasks) {
+		if (tasks.size() < 2) {
+			List<T> results = new ArrayList<>();
+			for (Callable<T> task : tasks) {
+				results.add(call(task));
+			}
+			return results;
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(
+				Math.min(tasks.size(), Runtime.getRuntime().availableProcessors()), runnable -> {
+					Thread thread = new Thread(runnable, "project-merger");
+					thread.setDaemon(true);
+					return thread;
+				});
+		try {
+			List<T> results = new ArrayList<>();
+			for (Future<T> future : executor.invokeAll(tasks)) {
+				results.add(future.get());
+			}
+			return results;
+		}
+		catch (ExecutionException ex) {
+			if (ex.getCause() instanceof RuntimeException runtimeException) {
+				throw runtimeException;
+			}
+			throw new SpringCliException("Error merging projects.", ex.getCause());
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new SpringCliException("Interrupted while merging projects.", ex);
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private static <T> T call(Callable<T> task) {
+		try {
+			return task.call();
+		}
+		catch (RuntimeException ex) {
+			throw ex;
+		}
+		catch (Exception ex) {
+			throw new SpringCliException("Error merging projects.", ex);
+		}
 	}
 
-	private void mergeMavenDependencies(Path currentProjectPomPath, Model currentModel, Model toMergeModel, List<Path> paths, MavenParser mavenParser) throws IOException {
+	/**
+	 * Parses the current pom once and applies the property, dependency management and
+	 * dependency changes to the parsed document one after another. The result is written
+	 * with the other files of the parse session.
+	 */
+	private void mergeMaven(MergeParseSession parseSession, Path currentProjectPomPath,
+			List<Dependency> currentDependencies, SourceMerge sourceMerge) {
+		parseSession.getMavenSource(currentProjectPomPath);
+		Model toMergeModel = sourceMerge.model;
+		MergeManifest previousManifest = sourceMerge.previousManifest;
+		boolean changed = mergeMavenProperties(parseSession, currentProjectPomPath, toMergeModel, previousManifest);
+		changed |= mergeMavenDependencyManagement(parseSession, currentProjectPomPath, toMergeModel, previousManifest);
+		changed |= mergeMavenDependencies(parseSession, currentProjectPomPath, currentDependencies, toMergeModel,
+				previousManifest);
+		if (!changed) {
+			logger.debug("No update of pom.xml from from " + sourceMerge.source.projectPath());
+		}
+	}
+
+	/**
+	 * Adds the dependencies of the project to merge that the current project does not
+	 * have yet. Added dependencies are appended to {@code currentDependencies} so that
+	 * later projects to merge don't add them again. Dependencies that are unchanged since
+	 * a previous merge of the same source are skipped.
+	 */
+	private boolean mergeMavenDependencies(MergeParseSession parseSession, Path currentProjectPomPath,
+			List<Dependency> currentDependencies, Model toMergeModel, @Nullable MergeManifest previousManifest) {
 		logger.debug("mergeMavenDependencies: Merging Maven Dependencies...");
 		List<Dependency> toMergeModelDependencies = toMergeModel.getDependencies();
-		List<Dependency> currentDependencies = currentModel.getDependencies();
 
+		boolean changed = false;
 		for (Dependency candidateDependency : toMergeModelDependencies) {
-			if (candidateDependencyAlreadyPresent(candidateDependency, currentDependencies)) {
+			if (candidateDependencyAlreadyPresent(candidateDependency, currentDependencies)
+					|| (previousManifest != null && previousManifest.isDependencyUnchanged(candidateDependency))) {
 				logger.debug("mergeMavenDependencies: Not merging dependency " + candidateDependency);
 			} else {
-				List<Document> parsedPomFiles = mavenParser.parse(paths, this.currentProjectPath, getExecutionContext());
 				String scope = candidateDependency.getScope();
 				if (scope == null) {
 					scope = "compile";
 				}
 				AddDependency addDependency = getRecipeAddDependency(candidateDependency.getGroupId(), candidateDependency.getArtifactId(), candidateDependency.getVersion(), scope, "org.springframework.boot.SpringApplication");
 
-				List<Result> resultList = addDependency.run(parsedPomFiles).getResults();
-				if (!resultList.isEmpty()) {
-					AttributedStringBuilder sb = new AttributedStringBuilder();
-					sb.style(sb.style().foreground(AttributedStyle.WHITE));
-					sb.append("Merging dependency " + candidateDependency.getGroupId() + ":" + candidateDependency.getArtifactId());
-					terminalMessage.print(sb.toAttributedString());
+				if (parseSession.run(addDependency, currentProjectPomPath)) {
+					printMerge("dependency " + candidateDependency.getGroupId() + ":" + candidateDependency.getArtifactId());
+					changed = true;
 				}
-				updatePomFile(currentProjectPomPath, resultList);
+				currentDependencies.add(candidateDependency);
 			}
 		}
+		return changed;
 	}
 
 	private boolean candidateDependencyAlreadyPresent(Dependency candidateDependency, List<Dependency> currentDependencies) {
@@ -426,89 +707,102 @@ public class ProjectMerger {
 		return candidateDependencyAlreadyPresent;
 	}
 
-	private void mergeMavenDependencyManagement(Path currentProjectPomPath, Model modelToMerge, List<Path> paths, MavenParser mavenParser) throws IOException {
+	private boolean mergeMavenDependencyManagement(MergeParseSession parseSession, Path currentProjectPomPath,
+			Model modelToMerge, @Nullable MergeManifest previousManifest) {
 		DependencyManagement dependencyManagement = modelToMerge.getDependencyManagement();
+		boolean changed = false;
 		if (dependencyManagement != null) {
 			List<Dependency> dependencies = dependencyManagement.getDependencies();
 
 			for (Dependency dependency : dependencies) {
+				if (previousManifest != null && previousManifest.isManagedDependencyUnchanged(dependency)) {
+					continue;
+				}
 				AddManagedDependency addManagedDependency = getRecipeAddManagedDependency(dependency.getGroupId(), dependency.getArtifactId(), dependency.getVersion(), dependency.getScope(),
 						dependency.getType(), dependency.getClassifier());
 
-				List<? extends SourceFile> pomFiles = mavenParser.parse(paths, this.currentProjectPath, getExecutionContext());
-				List<Result> resultList = addManagedDependency.run(pomFiles).getResults();
-				if (!resultList.isEmpty()) {
-					AttributedStringBuilder sb = new AttributedStringBuilder();
-					sb.style(sb.style().foreground(AttributedStyle.WHITE));
-					sb.append("Merging dependency management section " + dependency.getGroupId() + ":" + dependency.getArtifactId());
-					terminalMessage.print(sb.toAttributedString());
+				if (parseSession.run(addManagedDependency, currentProjectPomPath)) {
+					printMerge("dependency management section " + dependency.getGroupId() + ":" + dependency.getArtifactId());
+					changed = true;
 				}
-				updatePomFile(currentProjectPomPath, resultList);
 			}
 		}
+		return changed;
 	}
 
-	private void mergeMavenProperties(Path currentProjectPomPath, Model modelToMerge) throws IOException {
-		List<Path> paths = new ArrayList<>();
-		paths.add(currentProjectPomPath);
-		MavenParser mavenParser = MavenParser.builder().build();
-
+	private boolean mergeMavenProperties(MergeParseSession parseSession, Path currentProjectPomPath,
+			Model modelToMerge, @Nullable MergeManifest previousManifest) {
 		Properties propertiesToMerge = modelToMerge.getProperties();
 		Set<String> keysToMerge = propertiesToMerge.stringPropertyNames();
 
+		boolean changed = false;
 		for (String keyToMerge : keysToMerge) {
+			if (previousManifest != null
+					&& previousManifest.isPropertyUnchanged(keyToMerge, propertiesToMerge.getProperty(keyToMerge))) {
+				continue;
+			}
 			ChangePropertyValue changePropertyValueRecipe = new ChangePropertyValue(keyToMerge, propertiesToMerge.getProperty(keyToMerge), true, false);
-			// TODO - parse is expensive call, move out of loop?
-			List<? extends SourceFile> pomFiles = mavenParser.parse(paths, this.currentProjectPath, getExecutionContext());
-			RecipeRun recipeRun = changePropertyValueRecipe.run(pomFiles);
-			List<Result> resultList = recipeRun.getResults();
-			if (!resultList.isEmpty()) {
-				AttributedStringBuilder sb = new AttributedStringBuilder();
-				sb.style(sb.style().foreground(AttributedStyle.WHITE));
-				sb.append("Merging maven property key " + keyToMerge);
-				terminalMessage.print(sb.toAttributedString());
+			if (parseSession.run(changePropertyValueRecipe, currentProjectPomPath)) {
+				printMerge("maven property key " + keyToMerge);
+				changed = true;
 			}
-			updatePomFile(currentProjectPomPath, resultList);
-
 		}
+		return changed;
 	}
 
-
-	private void updateSpringApplicationClass(Path pathToCurrentSpringApplicationClass, List<Result> resultList) throws IOException {
-		if (resultList.isEmpty()) {
-			logger.debug("No update of SpringApplication class in " + pathToCurrentSpringApplicationClass);
-		}
-
+	/**
+	 * Prints a change made to the current project. For a dry run nothing was changed, the
+	 * change is printed as an entry of the plan instead.
+	 */
+	private void printMerge(String change) {
 		AttributedStringBuilder sb = new AttributedStringBuilder();
 		sb.style(sb.style().foreground(AttributedStyle.WHITE));
-		sb.append("Adding import statements and annotations to @SpringApplication class");
+		sb.append(this.dryRun ? "  Would merge " + change : "Merging " + change);
 		terminalMessage.print(sb.toAttributedString());
+	}
 
-		for (Result result : resultList) {
-			// write updated file.
-			try (BufferedWriter sourceFileWriter = Files.newBufferedWriter(pathToCurrentSpringApplicationClass)) {
-				sourceFileWriter.write(result.getAfter().printAllTrimmed());
-			}
+	/**
+	 * A project to merge into the current project.
+	 *
+	 * @param projectPath the Path where the project to merge is located
+	 * @param projectName used to change the name of README files
+	 * @param sourceUrl the URL the project was retrieved from, or {@code null} if no merge
+	 * manifest should be kept for it
+	 * @param commitSha the commit the project was retrieved at, or {@code null} if unknown
+	 */
+	public record MergeSource(Path projectPath, String projectName, @Nullable String sourceUrl,
+			@Nullable String commitSha) {
+
+		public MergeSource(Path projectPath, String projectName) {
+			this(projectPath, projectName, null, null);
 		}
+
 	}
 
-	private void updatePomFile(Path currentProjectPomPath, List<Result> resultList) throws IOException {
-		if (resultList.isEmpty()) {
-			logger.debug("No update of pom.xml from from " + this.toMergeProjectPath);
-		}
-		for (Result result : resultList) {
-			// write updated file.
-			try (BufferedWriter sourceFileWriter = Files.newBufferedWriter(currentProjectPomPath, StandardCharsets.UTF_8)) {
-				sourceFileWriter.write(result.getAfter().printAllTrimmed());
-			}
+	/**
+	 * The state of merging one project, shared by the merge phases.
+	 */
+	private static final class SourceMerge {
+
+		private final MergeSource source;
+
+		private final Model model;
+
+		@Nullable
+		private final MergeManifest previousManifest;
+
+		private final Map<String, String> fileHashes = new TreeMap<>();
+
+		private boolean applicationUnchanged;
+
+		private int unchangedFiles;
+
+		SourceMerge(MergeSource source, Model model, @Nullable MergeManifest previousManifest) {
+			this.source = source;
+			this.model = model;
+			this.previousManifest = previousManifest;
 		}
-	}
 
-	private ExecutionContext getExecutionContext() {
-		Consumer<Throwable> onError = e -> {
-			logger.error("error in javaParser execution", e);
-		};
-		return new InMemoryExecutionContext(onError);
 	}
 
 	public static AddManagedDependency getRecipeAddManagedDependency(String groupId, String artifactId, String version, String scope, String type, String classifier) {
@@ -19,6 +19,7 @@ package org.springframework.cli.runtime.command;
 import java.io.IOException;
 import java.nio.file.Path;
 
+import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
@@ -33,10 +34,19 @@ public final class CommandFileReader {
 
 	}
 
+	private static final ObjectMapper yamlMapper = createObjectMapper(new YAMLFactory());
+
 	public static CommandFileContents read(Path commandFile) throws IOException {
-		ObjectMapper mapper = new ObjectMapper(new YAMLFactory())
-				.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
-		return mapper.readValue(commandFile.toFile(), CommandFileContents.class);
+		return yamlMapper.readValue(commandFile.toFile(), CommandFileContents.class);
+	}
+
+	/**
+	 * Creates the mapper that command files are deserialized with.
+	 * @param jsonFactory the factory for the format the command file is in
+	 * @return the mapper
+	 */
+	public static ObjectMapper createObjectMapper(JsonFactory jsonFactory) {
+		return new ObjectMapper(jsonFactory).configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
 	}
 
 }
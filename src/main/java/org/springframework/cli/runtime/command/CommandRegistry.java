@@ -0,0 +1,333 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cli.runtime.command;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.cli.SpringCliException;
+import org.springframework.cli.runtime.engine.actions.ActionFileReader;
+import org.springframework.cli.runtime.engine.actions.ActionsFile;
+import org.springframework.lang.Nullable;
+
+/**
+ * Keeps the parsed contents of the command and action files of user-defined commands, so
+ * that they are not parsed from YAML again until they change.
+ *
+ * <p>
+ * The registry is stored in one file, {@code .spring/command-registry.json}, next to the
+ * {@code .spring/commands} directory. For each file it holds the file's size and last
+ * modification time, and the file's YAML compiled to JSON, which reads considerably
+ * faster. An entry is only used while size and modification time of its file are
+ * unchanged. Files whose YAML can not be represented as JSON exactly, for example
+ * because of hexadecimal numbers, are not kept and always read from YAML.
+ * </p>
+ *
+ * <p>
+ * Files are keyed by their path relative to the {@code .spring} directory, so that the
+ * registry stays valid when the project is moved. The registry is a derived cache of the
+ * command files and holds modification times of the local checkout, it belongs in
+ * {@code .gitignore} rather than under version control.
+ * </p>
+ */
+public class CommandRegistry {
+
+	private static final Logger logger = LoggerFactory.getLogger(CommandRegistry.class);
+
+	static final String REGISTRY_FILE_NAME = "command-registry.json";
+
+	private static final int VERSION = 2;
+
+	private static final Pattern JSON_NUMBER = Pattern.compile("-?(0|[1-9][0-9]*)(\\.[0-9]+)?([eE][+-]?[0-9]+)?");
+
+	private static final YAMLFactory yamlFactory = new YAMLFactory();
+
+	private static final JsonFactory jsonFactory = new JsonFactory();
+
+	private static final ObjectMapper registryMapper = new ObjectMapper(jsonFactory);
+
+	private static final ObjectReader commandFileReader = CommandFileReader.createObjectMapper(jsonFactory)
+			.readerFor(CommandFileContents.class);
+
+	private static final ObjectReader actionsFileReader = ActionFileReader.createObjectMapper(jsonFactory)
+			.readerFor(ActionsFile.class);
+
+	@Nullable
+	private final Path springDirectory;
+
+	@Nullable
+	private final Path registryFile;
+
+	private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+	private volatile boolean dirty;
+
+	private CommandRegistry(@Nullable Path springDirectory) {
+		this.springDirectory = springDirectory;
+		Path registryFile = (springDirectory != null) ? springDirectory.resolve(REGISTRY_FILE_NAME) : null;
+		this.registryFile = registryFile;
+		if (registryFile != null && Files.isRegularFile(registryFile)) {
+			try {
+				Contents contents = registryMapper.readValue(registryFile.toFile(), Contents.class);
+				if (contents.version() == VERSION && contents.entries() != null) {
+					this.entries.putAll(contents.entries());
+				}
+			}
+			catch (IOException ex) {
+				logger.debug("Ignoring unreadable command registry " + registryFile, ex);
+			}
+		}
+	}
+
+	/**
+	 * Gets the registry for a commands directory. The registry is stored if the directory
+	 * is a {@code .spring/commands} directory, otherwise it is only kept in memory.
+	 * @param commandsDirectory the directory holding the command directories
+	 * @return the registry
+	 */
+	public static CommandRegistry forCommandsDirectory(Path commandsDirectory) {
+		Path springDirectory = commandsDirectory.toAbsolutePath().normalize().getParent();
+		if (springDirectory != null && springDirectory.getFileName() != null
+				&& springDirectory.getFileName().toString().equals(".spring")) {
+			return new CommandRegistry(springDirectory);
+		}
+		return new CommandRegistry(null);
+	}
+
+	/**
+	 * Reads a {@code command.yaml} file.
+	 * @param commandFile the file
+	 * @return the contents of the file
+	 * @throws IOException if the file could not be read
+	 */
+	public CommandFileContents readCommandFile(Path commandFile) throws IOException {
+		return read(commandFile, commandFileReader, () -> CommandFileReader.read(commandFile));
+	}
+
+	/**
+	 * Reads an action file.
+	 * @param actionsFile the file
+	 * @return the contents of the file, empty if the file is not a YAML file
+	 */
+	public Optional<ActionsFile> readActionsFile(Path actionsFile) {
+		if (!ActionFileReader.isYamlFile(actionsFile)) {
+			return Optional.empty();
+		}
+		try {
+			ActionsFile contents = read(actionsFile, actionsFileReader,
+					() -> new ActionFileReader().read(actionsFile).get());
+			return Optional.of(contents);
+		}
+		catch (IOException ex) {
+			throw new SpringCliException("Could not read action file " + actionsFile, ex);
+		}
+	}
+
+	/**
+	 * Stores the registry if entries were added or replaced. Entries of files that no
+	 * longer exist are dropped.
+	 */
+	public void save() {
+		if (this.registryFile == null || !this.dirty) {
+			return;
+		}
+		this.entries.keySet().removeIf((key) -> !Files.isRegularFile(this.springDirectory.resolve(key)));
+		Path tempFile = this.registryFile.resolveSibling("." + REGISTRY_FILE_NAME + "." + UUID.randomUUID() + ".tmp");
+		try {
+			registryMapper.writeValue(tempFile.toFile(), new Contents(VERSION, new TreeMap<>(this.entries)));
+			try {
+				Files.move(tempFile, this.registryFile, StandardCopyOption.ATOMIC_MOVE,
+						StandardCopyOption.REPLACE_EXISTING);
+			}
+			catch (AtomicMoveNotSupportedException ex) {
+				Files.move(tempFile, this.registryFile, StandardCopyOption.REPLACE_EXISTING);
+			}
+			this.dirty = false;
+		}
+		catch (IOException ex) {
+			logger.debug("Could not write command registry " + this.registryFile, ex);
+		}
+		finally {
+			try {
+				Files.deleteIfExists(tempFile);
+			}
+			catch (IOException ex) {
+				logger.debug("Could not delete " + tempFile, ex);
+			}
+		}
+	}
+
+	private <T> T read(Path file, ObjectReader jsonReader, Callable<T> yamlReader) throws IOException {
+		String key = key(file);
+		BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+		long size = attributes.size();
+		long lastModified = attributes.lastModifiedTime().toMillis();
+
+		Entry entry = this.entries.get(key);
+		if (entry == null || entry.size() != size || entry.lastModified() != lastModified) {
+			String json = compile(file);
+			if (json == null) {
+				this.dirty |= this.entries.remove(key) != null;
+				return call(yamlReader);
+			}
+			entry = new Entry(size, lastModified, json);
+			this.entries.put(key, entry);
+			this.dirty = true;
+		}
+		try {
+			return jsonReader.readValue(entry.json());
+		}
+		catch (IOException ex) {
+			// let the YAML reader report the problem with the file
+			logger.debug("Could not read compiled " + file, ex);
+			this.dirty |= this.entries.remove(key) != null;
+			return call(yamlReader);
+		}
+	}
+
+	/**
+	 * Gets the key of a file, its path relative to the {@code .spring} directory with
+	 * {@code /} as separator, or its absolute path if the registry is not stored.
+	 */
+	private String key(Path file) {
+		Path absoluteFile = file.toAbsolutePath().normalize();
+		if (this.springDirectory == null) {
+			return absoluteFile.toString();
+		}
+		StringBuilder key = new StringBuilder();
+		for (Path name : this.springDirectory.relativize(absoluteFile)) {
+			if (key.length() > 0) {
+				key.append('/');
+			}
+			key.append(name);
+		}
+		return key.toString();
+	}
+
+	private static <T> T call(Callable<T> yamlReader) throws IOException {
+		try {
+			return yamlReader.call();
+		}
+		catch (IOException | RuntimeException ex) {
+			throw ex;
+		}
+		catch (Exception ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+
+	/**
+	 * Compiles the first document of a YAML file to JSON.
+	 * @return the JSON, or {@code null} if the YAML is empty or has values that JSON can
+	 * not represent exactly
+	 */
+	@Nullable
+	static String compile(Path file) {
+		StringWriter json = new StringWriter();
+		try (JsonParser parser = yamlFactory.createParser(file.toFile());
+				JsonGenerator generator = jsonFactory.createGenerator(json)) {
+			int depth = 0;
+			JsonToken token;
+			while ((token = parser.nextToken()) != null) {
+				switch (token) {
+					case START_OBJECT -> {
+						generator.writeStartObject();
+						depth++;
+					}
+					case END_OBJECT -> {
+						generator.writeEndObject();
+						depth--;
+					}
+					case START_ARRAY -> {
+						generator.writeStartArray();
+						depth++;
+					}
+					case END_ARRAY -> {
+						generator.writeEndArray();
+						depth--;
+					}
+					case FIELD_NAME -> generator.writeFieldName(parser.currentName());
+					case VALUE_STRING -> generator.writeString(parser.getText());
+					case VALUE_NUMBER_INT, VALUE_NUMBER_FLOAT -> {
+						// keep the text, string properties get it verbatim from YAML
+						String number = parser.getText();
+						if (!JSON_NUMBER.matcher(number).matches()) {
+							return null;
+						}
+						generator.writeNumber(number);
+					}
+					case VALUE_TRUE, VALUE_FALSE -> {
+						if (!parser.getText().equals(token.asString())) {
+							return null;
+						}
+						generator.writeBoolean(token == JsonToken.VALUE_TRUE);
+					}
+					case VALUE_NULL -> generator.writeNull();
+					default -> {
+						return null;
+					}
+				}
+				if (depth == 0) {
+					// further documents are ignored by the YAML readers as well
+					break;
+				}
+			}
+		}
+		catch (IOException ex) {
+			logger.debug("Could not compile " + file, ex);
+			return null;
+		}
+		return (json.getBuffer().length() > 0) ? json.toString() : null;
+	}
+
+	/**
+	 * A compiled file.
+	 * @param size the size of the file when it was compiled
+	 * @param lastModified the modification time of the file when it was compiled
+	 * @param json the compiled contents
+	 */
+	record Entry(long size, long lastModified, String json) {
+	}
+
+	/**
+	 * The stored registry.
+	 */
+	record Contents(int version, Map<String, Entry> entries) {
+	}
+
+}
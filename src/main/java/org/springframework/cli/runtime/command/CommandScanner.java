@@ -58,6 +58,7 @@ public class CommandScanner {
 	 */
 	public CommandScanResults scan() {
 		Map<Command, List<Command>> results = new HashMap<>();
+		CommandRegistry commandRegistry = CommandRegistry.forCommandsDirectory(this.pathToScan);
 
 		//TODO remove optional
 		final Optional<File> commandsDirectory = Optional.of(this.pathToScan.toAbsolutePath().toFile());
@@ -67,12 +68,12 @@ public class CommandScanner {
 			if (files != null) {
 				for (File commandDirectory : files) {
 					if (commandDirectory.isDirectory() && !commandDirectory.isHidden()) {
-						Command command = getCommandObject(commandDirectory);
+						Command command = getCommandObject(commandDirectory, commandRegistry);
 						File[] subFiles = commandDirectory.listFiles();
 						List<Command> subCommandList = new ArrayList<>();
 						for (File subCommandDirectory : subFiles) {
 							if (subCommandDirectory.isDirectory()) {
-								Command subCommand = getCommandObject(subCommandDirectory);
+								Command subCommand = getCommandObject(subCommandDirectory, commandRegistry);
 								subCommandList.add(subCommand);
 							}
 						}
@@ -81,6 +82,7 @@ public class CommandScanner {
 				}
 			}
 		}
+		commandRegistry.save();
 		return new CommandScanResults(results);
 	}
 
@@ -92,10 +94,11 @@ public class CommandScanner {
 	 * If a "command.yaml" file is found in the directory, values from that file are
 	 * used to populate the {@link Command} object. The properties "name" and
 	 * "description" will always be set with reasonable defaults if the generator.yaml
-	 * file is not found.
+	 * file is not found. The file is read through the {@link CommandRegistry}, which only
+	 * parses it if it changed since it was last read.
 	 * </p>
 	 */
-	private Command getCommandObject(File directory) {
+	private Command getCommandObject(File directory, CommandRegistry commandRegistry) {
 		//TODO also look for 'command.yml'
 		File manifestFile = new File(directory, "command.yaml");
 		Command command = new Command();
@@ -104,7 +107,7 @@ public class CommandScanner {
 			logger.info("Found command.yaml file in " + manifestFile.getAbsolutePath());
 			final CommandFileContents manifest;
 			try {
-				manifest = CommandFileReader.read(manifestFile.toPath());
+				manifest = commandRegistry.readCommandFile(manifestFile.toPath());
 			}
 			catch (IOException e) {
 				throw new SpringCliException("Failed to read " + manifestFile, e);
@@ -42,7 +42,6 @@ import org.slf4j.LoggerFactory;
 import org.springframework.cli.SpringCliException;
 import org.springframework.cli.roles.RoleService;
 import org.springframework.cli.runtime.engine.actions.Action;
-import org.springframework.cli.runtime.engine.actions.ActionFileReader;
 import org.springframework.cli.runtime.engine.actions.ActionFileVisitor;
 import org.springframework.cli.runtime.engine.actions.ActionsFile;
 import org.springframework.cli.runtime.engine.actions.Exec;
@@ -324,12 +323,16 @@ public class DynamicCommand {
 			throw new SpringCliException("Error trying to detect action files. " + e.getMessage(), e);
 		}
 
-		// Then actually parse, retaining only those paths that yielded a result
-		ActionFileReader actionFileReader = new ActionFileReader();
-		return visitor.getMatches().stream() //
-				.map(p -> new SimpleImmutableEntry<>(p, actionFileReader.read(p))) //
+		// Then actually parse, retaining only those paths that yielded a result. Files that
+		// did not change since they were last read come from the command registry.
+		CommandRegistry commandRegistry = CommandRegistry
+				.forCommandsDirectory(dynamicSubCommandPath.getParent().getParent());
+		Map<Path, ActionsFile> actionsFiles = visitor.getMatches().stream() //
+				.map(p -> new SimpleImmutableEntry<>(p, commandRegistry.readActionsFile(p))) //
 				.filter(kv -> kv.getValue().isPresent()) //
 				.collect(toSortedMap(Entry::getKey, (e) -> e.getValue().get()));
+		commandRegistry.save();
+		return actionsFiles;
 	}
 
 	private static <T, K, U> Collector<T, ?, Map<K, U>> toSortedMap(Function<? super T, ? extends K> keyMapper,
@@ -26,6 +26,7 @@ import java.nio.file.Path;
 import java.util.List;
 import java.util.Optional;
 
+import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonLocation;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.DeserializationFeature;
@@ -41,15 +42,31 @@ import org.springframework.util.FileCopyUtils;
 
 public class ActionFileReader {
 
-	public Optional<ActionsFile> read(Path pathToFile) {
-		boolean isYamlFile = false;
+	private static final ObjectMapper yamlMapper = createObjectMapper(new YAMLFactory());
+
+	/**
+	 * Creates the mapper that action files are deserialized with.
+	 * @param jsonFactory the factory for the format the action file is in
+	 * @return the mapper
+	 */
+	public static ObjectMapper createObjectMapper(JsonFactory jsonFactory) {
+		return new ObjectMapper(jsonFactory)
+				.setPropertyNamingStrategy(PropertyNamingStrategies.KEBAB_CASE)
+				.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+	}
+
+	/**
+	 * Tells whether a file can be an action file, only YAML files are.
+	 * @param pathToFile the file
+	 * @return {@code true} if the file has a YAML extension
+	 */
+	public static boolean isYamlFile(Path pathToFile) {
 		String fileExtension = FileExtensionUtils.getExtension(pathToFile.toString());
-		if (!fileExtension.isEmpty()) {
-			if (fileExtension.equalsIgnoreCase("yaml") || fileExtension.equalsIgnoreCase(("yml"))) {
-				isYamlFile = true;
-			}
-		}
-		if (!isYamlFile) {
+		return fileExtension.equalsIgnoreCase("yaml") || fileExtension.equalsIgnoreCase("yml");
+	}
+
+	public Optional<ActionsFile> read(Path pathToFile) {
+		if (!isYamlFile(pathToFile)) {
 			return Optional.empty();
 		}
 		return Optional.of(read(new FileSystemResource(pathToFile)));
@@ -58,10 +75,7 @@ public class ActionFileReader {
 	public ActionsFile read(Resource resource) {
 		try {
 			String actionFileString = asString(resource);
-			ObjectMapper mapper = new ObjectMapper(new YAMLFactory())
-					.setPropertyNamingStrategy(PropertyNamingStrategies.KEBAB_CASE)
-					.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
-			return mapper.readValue(actionFileString, ActionsFile.class);
+			return yamlMapper.readValue(actionFileString, ActionsFile.class);
 		} catch (JsonProcessingException ex) {
 			improveErrorMessage(resource, ex);
 			throw new SpringCliException("Could not deserialize action file " + resource.getDescription(), ex);
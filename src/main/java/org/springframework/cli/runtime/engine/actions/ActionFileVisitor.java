@@ -13,23 +13,29 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
-
 package org.springframework.cli.runtime.engine.actions;
 
 import java.io.IOException;
 import java.nio.file.FileVisitor;
 import java.nio.file.Path;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 
 import org.apache.tika.Tika;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import org.springframework.cli.util.FileExtensionUtils;
 import org.springframework.cli.util.PathGatheringFileVisitor;
 
 /**
  * A {@link FileVisitor} that walks a directory structure looking for text files
- * to processes as determined by the Tika
+ * to processes. Files are classified by their extension, the content of files with an
+ * unknown extension is inspected by Tika. Results of inspecting content are cached by
+ * path, size and modification time, for the most recently visited files only.
  *
  * @author Eric Bottard
  * @author Mark Pollack
@@ -38,21 +44,63 @@ public class ActionFileVisitor extends PathGatheringFileVisitor {
 
 	private static final Logger logger = LoggerFactory.getLogger(ActionFileVisitor.class);
 
-	private final Tika tika = new Tika();
+	private static final Set<String> TEXT_EXTENSIONS = Set.of("yaml", "yml", "txt", "md", "adoc", "hbs", "java",
+			"kt", "groovy", "gradle", "xml", "json", "properties", "html", "css", "js", "ts", "sql", "sh", "toml",
+			"csv");
+
+	private static final Set<String> BINARY_EXTENSIONS = Set.of("png", "jpg", "jpeg", "gif", "bmp", "ico", "webp",
+			"pdf", "jar", "war", "zip", "gz", "tgz", "tar", "class", "so", "dll", "exe", "woff", "woff2", "ttf",
+			"otf", "eot", "mp3", "mp4", "bin");
+
+	// Tika is thread safe, creating it loads its mime type definitions
+	private static final Tika tika = new Tika();
+
+	private static final int DETECTED_TYPES_CACHE_SIZE = 1024;
+
+	private static final Map<Path, DetectedType> detectedTypes = new LinkedHashMap<Path, DetectedType>(16, 0.75f,
+			true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Path, DetectedType> eldest) {
+			return size() > DETECTED_TYPES_CACHE_SIZE;
+		}
+	};
 
 	@Override
 	protected boolean rejectFile(Path file, BasicFileAttributes attrs) {
-		return super.rejectFile(file, attrs) || !looksLikeText(file);
+		return super.rejectFile(file, attrs) || !looksLikeText(file, attrs);
 	}
 
-	private boolean looksLikeText(Path path) {
-		try {
-			return (tika.detect(path).startsWith("text") || tika.detect(path).contains("xml"));
+	private boolean looksLikeText(Path path, BasicFileAttributes attrs) {
+		String extension = FileExtensionUtils.getExtension(path.getFileName().toString()).toLowerCase(Locale.ROOT);
+		if (TEXT_EXTENSIONS.contains(extension)) {
+			return true;
 		}
-		catch (IOException ex) {
-			logger.warn("Error detecting mime type for {}", path);
+		if (BINARY_EXTENSIONS.contains(extension)) {
 			return false;
 		}
+		long lastModified = attrs.lastModifiedTime().toMillis();
+		DetectedType detectedType;
+		synchronized (detectedTypes) {
+			detectedType = detectedTypes.get(path);
+		}
+		if (detectedType == null || detectedType.size() != attrs.size() || detectedType.lastModified() != lastModified) {
+			try {
+				String mimeType = tika.detect(path);
+				detectedType = new DetectedType(attrs.size(), lastModified,
+						mimeType.startsWith("text") || mimeType.contains("xml"));
+			}
+			catch (IOException ex) {
+				logger.warn("Error detecting mime type for {}", path);
+				return false;
+			}
+			synchronized (detectedTypes) {
+				detectedTypes.put(path, detectedType);
+			}
+		}
+		return detectedType.text();
+	}
+
+	private record DetectedType(long size, long lastModified, boolean text) {
 	}
 
 }
@@ -43,15 +43,51 @@ import java.util.Objects;
 
 import org.springframework.cli.SpringCliException;
 import org.springframework.expression.BeanResolver;
+import org.springframework.expression.EvaluationContext;
 import org.springframework.expression.Expression;
-import org.springframework.expression.ExpressionParser;
 import org.springframework.expression.ParserContext;
+import org.springframework.expression.common.CompositeStringExpression;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelNode;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.ast.Assign;
+import org.springframework.expression.spel.ast.BeanReference;
+import org.springframework.expression.spel.ast.ConstructorReference;
+import org.springframework.expression.spel.ast.FunctionReference;
+import org.springframework.expression.spel.ast.MethodReference;
+import org.springframework.expression.spel.ast.OpDec;
+import org.springframework.expression.spel.ast.OpInc;
+import org.springframework.expression.spel.ast.TypeReference;
+import org.springframework.expression.spel.standard.SpelExpression;
 import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.DataBindingPropertyAccessor;
+import org.springframework.expression.spel.support.SimpleEvaluationContext;
 import org.springframework.expression.spel.support.StandardEvaluationContext;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ConcurrentReferenceHashMap;
 
+/**
+ * A condition given by a SpEL expression evaluated against a model, which is both the
+ * root object and the variables of the expression.
+ *
+ * <p>
+ * Parsed expressions are shared by all conditions, keyed by expression text and parser
+ * context, and are compiled once they have been interpreted a few times. Expressions that
+ * only read properties, index and compare values are evaluated with a read-only
+ * {@link SimpleEvaluationContext}; calling methods, such as those of the
+ * {@code functions} in the model, referencing types or beans, or assigning values needs
+ * a {@link StandardEvaluationContext}.
+ * </p>
+ */
 public class SpELCondition {
 
-	private final ExpressionParser parser = new SpelExpressionParser();
+	private static final SpelExpressionParser parser = new SpelExpressionParser(
+			new SpelParserConfiguration(SpelCompilerMode.MIXED, SpELCondition.class.getClassLoader()));
+
+	private static final Map<ExpressionKey, ParsedExpression> expressionCache = new ConcurrentReferenceHashMap<>();
+
+	private static final DataBindingPropertyAccessor readOnlyPropertyAccessor = DataBindingPropertyAccessor
+			.forReadOnlyAccess();
 
 	private BeanResolver beanResolver;
 
@@ -77,15 +113,24 @@ public class SpELCondition {
 	}
 
 	public boolean evaluate(Map<String, Object> model) {
-		StandardEvaluationContext context = new StandardEvaluationContext();
-		context.setRootObject(model);
-		context.setVariables(model);
-
-		if (beanResolver != null) {
-			context.setBeanResolver(beanResolver);
+		ParsedExpression parsedExpression = parse(this.expression, this.parserContext);
+		EvaluationContext context;
+		if (parsedExpression.requiresStandardContext() || beanResolver != null) {
+			StandardEvaluationContext standardContext = new StandardEvaluationContext();
+			standardContext.setRootObject(model);
+			standardContext.setVariables(model);
+			if (beanResolver != null) {
+				standardContext.setBeanResolver(beanResolver);
+			}
+			context = standardContext;
+		}
+		else {
+			context = SimpleEvaluationContext.forPropertyAccessors(readOnlyPropertyAccessor)
+					.withRootObject(model)
+					.build();
+			model.forEach(context::setVariable);
 		}
-		Expression compiledExpression = parser.parseExpression(this.expression, this.parserContext);
-		Object expressionValue =  compiledExpression.getValue(context, Object.class);
+		Object expressionValue =  parsedExpression.expression().getValue(context, Object.class);
 		if (Objects.isNull(expressionValue)) {
 			throw new SpringCliException("'if' expression: '" + this.expression + "' should return boolean.  Instead returned null.");
 		}
@@ -98,4 +143,51 @@ public class SpELCondition {
 
 		}
 	}
+
+	private static ParsedExpression parse(String expression, @Nullable ParserContext parserContext) {
+		ExpressionKey key = (parserContext != null)
+				? new ExpressionKey(expression, parserContext.isTemplate(), parserContext.getExpressionPrefix(),
+						parserContext.getExpressionSuffix())
+				: new ExpressionKey(expression, false, null, null);
+		return expressionCache.computeIfAbsent(key, (k) -> {
+			Expression parsed = parser.parseExpression(expression, parserContext);
+			return new ParsedExpression(parsed, requiresStandardContext(parsed));
+		});
+	}
+
+	private static boolean requiresStandardContext(Expression expression) {
+		if (expression instanceof SpelExpression spelExpression) {
+			return requiresStandardContext(spelExpression.getAST());
+		}
+		if (expression instanceof CompositeStringExpression compositeExpression) {
+			for (Expression part : compositeExpression.getExpressions()) {
+				if (requiresStandardContext(part)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	private static boolean requiresStandardContext(SpelNode node) {
+		if (node instanceof MethodReference || node instanceof FunctionReference || node instanceof TypeReference
+				|| node instanceof BeanReference || node instanceof ConstructorReference || node instanceof Assign
+				|| node instanceof OpInc || node instanceof OpDec) {
+			return true;
+		}
+		for (int i = 0; i < node.getChildCount(); i++) {
+			if (requiresStandardContext(node.getChild(i))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private record ExpressionKey(String expression, boolean template, @Nullable String prefix,
+			@Nullable String suffix) {
+	}
+
+	private record ParsedExpression(Expression expression, boolean requiresStandardContext) {
+	}
+
 }
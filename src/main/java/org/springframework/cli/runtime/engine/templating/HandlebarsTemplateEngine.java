@@ -17,8 +17,14 @@
 package org.springframework.cli.runtime.engine.templating;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
 
 import com.github.jknack.handlebars.Context;
 import com.github.jknack.handlebars.Handlebars;
@@ -26,38 +32,216 @@ import com.github.jknack.handlebars.HumanizeHelper;
 import com.github.jknack.handlebars.Template;
 import com.github.jknack.handlebars.helper.StringHelpers;
 
+import org.springframework.lang.Nullable;
 import org.springframework.util.StringUtils;
 
 /**
+ * A {@link TemplateEngine} using Handlebars. Compiled templates are kept in a bounded
+ * cache keyed by template text, evicting the least recently used template. Text without
+ * any expression is returned as is, without involving Handlebars.
+ *
+ * <p>
+ * Templates that only reference variables, such as {@code {{artifact-id}}.yaml}, are
+ * rendered from a precomputed list of segments, escaped the way Handlebars escapes
+ * them. Handlebars renders them instead when a variable is not a plain value of the
+ * model, and always renders templates using helpers, blocks, paths or other syntax.
+ * </p>
+ *
  * @author Mark Pollack
  */
 public class HandlebarsTemplateEngine implements TemplateEngine {
 
+	private static final int DEFAULT_CACHE_SIZE = 256;
+
+	private static final Pattern SIMPLE_VARIABLE_NAME = Pattern.compile("[A-Za-z_$][A-Za-z0-9_$-]*");
+
+	private static final Set<String> RESERVED_NAMES = Set.of("this", "else", "true", "false", "null", "undefined");
+
+	private static final int MAX_REUSED_BUFFER_CAPACITY = 64 * 1024;
+
+	private static final ThreadLocal<StringBuilder> buffers = ThreadLocal.withInitial(() -> new StringBuilder(256));
+
 	private Handlebars handlebars;
 
+	private final Map<String, CompiledTemplate> templateCache;
+
+	private final AtomicLong cacheHits = new AtomicLong();
+
+	private final AtomicLong cacheMisses = new AtomicLong();
+
 	public HandlebarsTemplateEngine() {
+		this(DEFAULT_CACHE_SIZE);
+	}
+
+	/**
+	 * Create a new instance.
+	 * @param cacheSize the maximum number of compiled templates to keep
+	 */
+	public HandlebarsTemplateEngine(int cacheSize) {
 		this.handlebars =  new Handlebars();
 		HumanizeHelper.register(this.handlebars);
 		StringHelpers.register(this.handlebars);
+		this.templateCache = new LinkedHashMap<String, CompiledTemplate>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, CompiledTemplate> eldest) {
+				return size() > cacheSize;
+			}
+		};
 	}
 
 	@Override
 	public String process(String templateText, Map context) {
+		if (!StringUtils.hasText(templateText)) {
+			return "";
+		}
+		if (!templateText.contains("{{")) {
+			return templateText;
+		}
 		try {
-			Template template = this.handlebars.compileInline(templateText);
+			CompiledTemplate compiledTemplate = getTemplate(templateText);
 			if (context == null) {
 				context = new HashMap();
 			}
-			Context handlebarsContext = Context.newBuilder(context).build();
-			if (StringUtils.hasText(templateText)) {
-				return template.apply(handlebarsContext);
-			} else {
-				return "";
+			String result = compiledTemplate.applySimple(context);
+			if (result != null) {
+				return result;
 			}
+			Context handlebarsContext = Context.newBuilder(context).build();
+			return compiledTemplate.getTemplate().apply(handlebarsContext);
 		}
 		catch (IOException e) {
 			throw new RuntimeException(e);
 		}
 	}
 
+	/**
+	 * Gets the number of templates that were found compiled in the cache.
+	 * @return the number of cache hits
+	 */
+	public long getCacheHits() {
+		return this.cacheHits.get();
+	}
+
+	/**
+	 * Gets the number of templates that had to be compiled.
+	 * @return the number of cache misses
+	 */
+	public long getCacheMisses() {
+		return this.cacheMisses.get();
+	}
+
+	private CompiledTemplate getTemplate(String templateText) throws IOException {
+		synchronized (this.templateCache) {
+			CompiledTemplate template = this.templateCache.get(templateText);
+			if (template != null) {
+				this.cacheHits.incrementAndGet();
+				return template;
+			}
+		}
+		// compile outside the lock, a template compiled twice concurrently is harmless
+		CompiledTemplate template = compile(templateText);
+		this.cacheMisses.incrementAndGet();
+		synchronized (this.templateCache) {
+			this.templateCache.put(templateText, template);
+		}
+		return template;
+	}
+
+	private CompiledTemplate compile(String templateText) throws IOException {
+		List<String> literals = new ArrayList<>();
+		List<String> names = new ArrayList<>();
+		boolean simple = !templateText.contains("\\{{");
+		int position = 0;
+		while (simple && position < templateText.length()) {
+			int start = templateText.indexOf("{{", position);
+			if (start == -1) {
+				break;
+			}
+			int end = templateText.indexOf("}}", start + 2);
+			String name = (end != -1) ? templateText.substring(start + 2, end).trim() : "";
+			// helpers without parameters look like variables
+			simple = SIMPLE_VARIABLE_NAME.matcher(name).matches() && !RESERVED_NAMES.contains(name)
+					&& this.handlebars.helper(name) == null;
+			literals.add(templateText.substring(position, start));
+			names.add(name);
+			position = end + 2;
+		}
+		if (!simple) {
+			return new CompiledTemplate(templateText, this.handlebars.compileInline(templateText), null, null);
+		}
+		literals.add(templateText.substring(position));
+		return new CompiledTemplate(templateText, null, literals.toArray(new String[0]), names.toArray(new String[0]));
+	}
+
+	/**
+	 * A template, either compiled by Handlebars or made of literal text and variable
+	 * names.
+	 */
+	private final class CompiledTemplate {
+
+		private final String text;
+
+		@Nullable
+		private volatile Template template;
+
+		@Nullable
+		private final String[] literals;
+
+		@Nullable
+		private final String[] names;
+
+		CompiledTemplate(String text, @Nullable Template template, @Nullable String[] literals,
+				@Nullable String[] names) {
+			this.text = text;
+			this.template = template;
+			this.literals = literals;
+			this.names = names;
+		}
+
+		/**
+		 * Renders a template made of variables.
+		 * @return the rendered text, or {@code null} if the template has to be rendered by
+		 * Handlebars
+		 */
+		@Nullable
+		String applySimple(Map<?, ?> context) {
+			if (this.names == null) {
+				return null;
+			}
+			StringBuilder buffer = buffers.get();
+			buffer.setLength(0);
+			buffer.append(this.literals[0]);
+			for (int i = 0; i < this.names.length; i++) {
+				// missing keys may resolve to properties of the map itself in Handlebars
+				if (!context.containsKey(this.names[i])) {
+					return null;
+				}
+				Object value = context.get(this.names[i]);
+				if (value != null) {
+					if (!(value instanceof String || value instanceof Number || value instanceof Boolean
+							|| value instanceof Character)) {
+						return null;
+					}
+					buffer.append(handlebars.getEscapingStrategy().escape(value.toString()));
+				}
+				buffer.append(this.literals[i + 1]);
+			}
+			String result = buffer.toString();
+			if (buffer.capacity() > MAX_REUSED_BUFFER_CAPACITY) {
+				buffers.remove();
+			}
+			return result;
+		}
+
+		Template getTemplate() throws IOException {
+			Template template = this.template;
+			if (template == null) {
+				template = handlebars.compileInline(this.text);
+				this.template = template;
+			}
+			return template;
+		}
+
+	}
+
 }
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cli.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Searches file contents for a sequence of bytes without decoding them, reading a file
+ * only up to the first occurrence.
+ */
+final class ByteSearch {
+
+	private static final int BUFFER_SIZE = 8192;
+
+	private ByteSearch() {
+	}
+
+	/**
+	 * Tells whether a file contains a sequence of bytes.
+	 *
+	 * @param file the file to search
+	 * @param pattern the bytes to search for
+	 * @return {@code true} if the file contains the bytes
+	 * @throws IOException if the file could not be read
+	 */
+	static boolean contains(Path file, byte[] pattern) throws IOException {
+		byte[] buffer = new byte[Math.max(BUFFER_SIZE, pattern.length * 2)];
+		int length = 0;
+		try (InputStream inputStream = Files.newInputStream(file)) {
+			int read;
+			while ((read = inputStream.read(buffer, length, buffer.length - length)) != -1) {
+				length += read;
+				if (indexOf(buffer, length, pattern) != -1) {
+					return true;
+				}
+				// keep the tail, the pattern may be split across two reads
+				int keep = Math.min(length, pattern.length - 1);
+				System.arraycopy(buffer, length - keep, buffer, 0, keep);
+				length = keep;
+			}
+		}
+		return false;
+	}
+
+	private static int indexOf(byte[] buffer, int length, byte[] pattern) {
+		int last = length - pattern.length;
+		for (int i = 0; i <= last; i++) {
+			if (buffer[i] != pattern[0]) {
+				continue;
+			}
+			int j = 1;
+			while (j < pattern.length && buffer[i + j] == pattern[j]) {
+				j++;
+			}
+			if (j == pattern.length) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+}
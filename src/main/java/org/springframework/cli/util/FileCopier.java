@@ -0,0 +1,405 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cli.util;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.cli.SpringCliException;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * Copies files on a bounded pool of threads. Copies go through
+ * {@link Files#copy(Path, Path, java.nio.file.CopyOption...)} so the platform can
+ * transfer bytes without passing them through the heap, and file attributes such as the
+ * executable bit are kept. Files can also be materialized as hard links or reflinks
+ * of a source that is never modified, falling back to a copy when linking fails.
+ */
+public class FileCopier {
+
+	private static final Logger logger = LoggerFactory.getLogger(FileCopier.class);
+
+	private static final int REFLINK_BATCH_SIZE = 200;
+
+	private final int parallelism;
+
+	public FileCopier() {
+		this(Math.max(2, Runtime.getRuntime().availableProcessors()));
+	}
+
+	public FileCopier(int parallelism) {
+		Assert.isTrue(parallelism > 0, "parallelism must be positive");
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * Copies all regular files below a directory into another directory, keeping their
+	 * relative paths.
+	 *
+	 * @param fromDir the directory to copy from
+	 * @param toDir the directory to copy to
+	 * @return totals of the copy
+	 */
+	public CopyResult copyDirectory(Path fromDir, Path toDir) {
+		Map<Path, Path> copies = new LinkedHashMap<>();
+		for (Path file : listFiles(fromDir)) {
+			copies.put(file, toDir.resolve(fromDir.relativize(file).toString()));
+		}
+		return copy(copies);
+	}
+
+	/**
+	 * Copies files, replacing existing target files.
+	 *
+	 * @param copies source files mapped to the target file they are copied to
+	 * @return totals of the copy
+	 */
+	public CopyResult copy(Map<Path, Path> copies) {
+		return materialize(copies, Collections.emptyList(), LinkMode.COPY);
+	}
+
+	/**
+	 * Copies all files below a directory into another directory, linking the files that
+	 * are unchanged compared to a directory that is never modified instead of copying
+	 * them. A file is considered unchanged if a file with the same relative path, size
+	 * and modification time exists in the link source.
+	 *
+	 * @param fromDir the directory to copy from
+	 * @param toDir the directory to copy to
+	 * @param linkSourceDir the directory to link unchanged files from, may be
+	 * {@code null}
+	 * @param linkMode how unchanged files are materialized
+	 * @return totals of the copy
+	 */
+	public CopyResult copyDirectory(Path fromDir, Path toDir, @Nullable Path linkSourceDir, LinkMode linkMode) {
+		return copyDirectory(fromDir, toDir, linkSourceDir, linkMode, (file) -> true);
+	}
+
+	/**
+	 * Copies all files below a directory into another directory, linking the files that
+	 * are unchanged compared to a directory that is never modified instead of copying
+	 * them, unless they are excluded from linking. A file is considered unchanged if a
+	 * file with the same relative path, size and modification time exists in the link
+	 * source.
+	 *
+	 * @param fromDir the directory to copy from
+	 * @param toDir the directory to copy to
+	 * @param linkSourceDir the directory to link unchanged files from, may be
+	 * {@code null}
+	 * @param linkMode how unchanged files are materialized
+	 * @param linkable tests whether a file of {@code fromDir} may be linked, files that
+	 * are written to in place later should always be copied
+	 * @return totals of the copy
+	 */
+	public CopyResult copyDirectory(Path fromDir, Path toDir, @Nullable Path linkSourceDir, LinkMode linkMode,
+			Predicate<Path> linkable) {
+		if (linkSourceDir == null || linkMode == LinkMode.COPY) {
+			return copyDirectory(fromDir, toDir);
+		}
+		Map<Path, Path> copies = new LinkedHashMap<>();
+		List<Link> links = new ArrayList<>();
+		for (Path file : listFiles(fromDir)) {
+			Path relativePath = fromDir.relativize(file);
+			Path target = toDir.resolve(relativePath.toString());
+			Path linkSource = linkSourceDir.resolve(relativePath.toString());
+			if (linkable.test(file) && isUnchanged(file, linkSource)) {
+				links.add(new Link(linkSource, file, target));
+			}
+			else {
+				copies.put(file, target);
+			}
+		}
+		return materialize(copies, links, linkMode);
+	}
+
+	private CopyResult materialize(Map<Path, Path> copies, List<Link> links, LinkMode linkMode) {
+		long start = System.nanoTime();
+		createParentDirectories(copies.values());
+		createParentDirectories(links.stream().map(Link::target).collect(Collectors.toList()));
+		AtomicInteger fileCount = new AtomicInteger();
+		AtomicInteger linkCount = new AtomicInteger();
+		AtomicLong byteCount = new AtomicLong();
+		List<Runnable> tasks = new ArrayList<>(copies.size() + links.size());
+		for (Map.Entry<Path, Path> copy : copies.entrySet()) {
+			tasks.add(() -> {
+				byteCount.addAndGet(copyFile(copy.getKey(), copy.getValue()));
+				fileCount.incrementAndGet();
+			});
+		}
+		if (linkMode == LinkMode.HARDLINK) {
+			for (Link link : links) {
+				tasks.add(() -> {
+					if (hardlink(link.source(), link.target())) {
+						linkCount.incrementAndGet();
+					}
+					else {
+						byteCount.addAndGet(copyFile(link.fallback(), link.target()));
+					}
+					fileCount.incrementAndGet();
+				});
+			}
+		}
+		else if (linkMode == LinkMode.REFLINK) {
+			for (List<Link> batch : reflinkBatches(links)) {
+				tasks.add(() -> {
+					if (reflink(batch)) {
+						linkCount.addAndGet(batch.size());
+					}
+					else {
+						for (Link link : batch) {
+							byteCount.addAndGet(copyFile(link.fallback(), link.target()));
+						}
+					}
+					fileCount.addAndGet(batch.size());
+				});
+			}
+		}
+		else {
+			for (Link link : links) {
+				tasks.add(() -> {
+					byteCount.addAndGet(copyFile(link.fallback(), link.target()));
+					fileCount.incrementAndGet();
+				});
+			}
+		}
+		run(tasks);
+		return new CopyResult(fileCount.get(), linkCount.get(), byteCount.get(),
+				Duration.ofNanos(System.nanoTime() - start));
+	}
+
+	private void run(List<Runnable> tasks) {
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, Math.max(1, tasks.size())),
+				runnable -> {
+					Thread thread = new Thread(runnable, "file-copier");
+					thread.setDaemon(true);
+					return thread;
+				});
+		try {
+			List<Future<?>> futures = new ArrayList<>(tasks.size());
+			for (Runnable task : tasks) {
+				futures.add(executor.submit(task));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		}
+		catch (ExecutionException ex) {
+			if (ex.getCause() instanceof SpringCliException springCliException) {
+				throw springCliException;
+			}
+			throw new SpringCliException("Could not copy files", ex.getCause());
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new SpringCliException("Interrupted while copying files", ex);
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private static long copyFile(Path source, Path target) {
+		logger.debug("Copy from " + source + " to " + target);
+		try {
+			Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.COPY_ATTRIBUTES);
+			return Files.size(target);
+		}
+		catch (IOException ex) {
+			throw new SpringCliException("Could not copy " + source + " to " + target, ex);
+		}
+	}
+
+	private static boolean hardlink(Path source, Path target) {
+		try {
+			Files.deleteIfExists(target);
+			Files.createLink(target, source);
+			logger.debug("Linked " + target + " to " + source);
+			return true;
+		}
+		catch (IOException | UnsupportedOperationException | SecurityException ex) {
+			logger.debug("Could not link " + target + " to " + source + ", copying instead", ex);
+			return false;
+		}
+	}
+
+	/**
+	 * Groups links by target directory so a single {@code cp} process can clone a whole
+	 * batch of files.
+	 */
+	private static List<List<Link>> reflinkBatches(List<Link> links) {
+		Map<Path, List<Link>> byDirectory = new LinkedHashMap<>();
+		for (Link link : links) {
+			byDirectory.computeIfAbsent(link.target().getParent(), (dir) -> new ArrayList<>()).add(link);
+		}
+		List<List<Link>> batches = new ArrayList<>();
+		for (List<Link> entries : byDirectory.values()) {
+			for (int i = 0; i < entries.size(); i += REFLINK_BATCH_SIZE) {
+				batches.add(entries.subList(i, Math.min(entries.size(), i + REFLINK_BATCH_SIZE)));
+			}
+		}
+		return batches;
+	}
+
+	private static boolean reflink(List<Link> batch) {
+		if (isWindows()) {
+			return false;
+		}
+		List<String> command = new ArrayList<>();
+		command.add("cp");
+		command.add("--reflink=always");
+		command.add("--preserve=mode,timestamps");
+		command.add("-f");
+		for (Link link : batch) {
+			if (!link.source().getFileName().equals(link.target().getFileName())) {
+				return false;
+			}
+			command.add(link.source().toString());
+		}
+		Path targetDir = batch.get(0).target().getParent();
+		command.add(targetDir.toString());
+		try {
+			Process process = new ProcessBuilder(command).redirectErrorStream(true)
+					.redirectOutput(ProcessBuilder.Redirect.DISCARD).start();
+			boolean cloned = process.waitFor() == 0;
+			if (!cloned) {
+				logger.debug("Could not reflink into " + targetDir + ", copying instead");
+			}
+			return cloned;
+		}
+		catch (IOException ex) {
+			logger.debug("Could not run cp to reflink files, copying instead", ex);
+			return false;
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+	private static boolean isUnchanged(Path file, Path linkSource) {
+		try {
+			BasicFileAttributes fileAttributes = Files.readAttributes(file, BasicFileAttributes.class);
+			BasicFileAttributes sourceAttributes = Files.readAttributes(linkSource, BasicFileAttributes.class);
+			return sourceAttributes.isRegularFile() && fileAttributes.size() == sourceAttributes.size()
+					&& fileAttributes.lastModifiedTime().equals(sourceAttributes.lastModifiedTime());
+		}
+		catch (IOException ex) {
+			return false;
+		}
+	}
+
+	private static List<Path> listFiles(Path dir) {
+		try (Stream<Path> paths = Files.walk(dir)) {
+			return paths.filter(Files::isRegularFile).collect(Collectors.toList());
+		}
+		catch (IOException ex) {
+			throw new SpringCliException("Could not read files in " + dir, ex);
+		}
+	}
+
+	private static boolean isWindows() {
+		return System.getProperty("os.name").startsWith("Windows");
+	}
+
+	private static void createParentDirectories(Iterable<Path> targets) {
+		Set<Path> parents = new LinkedHashSet<>();
+		for (Path target : targets) {
+			if (target.getParent() != null) {
+				parents.add(target.getParent());
+			}
+		}
+		for (Path parent : parents) {
+			try {
+				Files.createDirectories(parent);
+			}
+			catch (IOException ex) {
+				throw new SpringCliException("Could not create directory " + parent, ex);
+			}
+		}
+	}
+
+	/**
+	 * A file to link, copied from the fallback if linking fails.
+	 */
+	private record Link(Path source, Path fallback, Path target) {
+	}
+
+	/**
+	 * How files that have a source which is never modified are materialized.
+	 */
+	public enum LinkMode {
+
+		/**
+		 * Copy the bytes of the file.
+		 */
+		COPY,
+
+		/**
+		 * Create a hard link to the source, the file then shares the source's content
+		 * and permissions.
+		 */
+		HARDLINK,
+
+		/**
+		 * Create a copy-on-write clone of the source where the filesystem supports it.
+		 */
+		REFLINK
+
+	}
+
+	/**
+	 * Totals of a copy.
+	 *
+	 * @param files the number of materialized files
+	 * @param linkedFiles the number of files that were linked instead of copied
+	 * @param bytes the number of copied bytes
+	 * @param duration the time the copy took
+	 */
+	public record CopyResult(int files, int linkedFiles, long bytes, Duration duration) {
+
+		@Override
+		public String toString() {
+			return files + " files (" + linkedFiles + " linked, " + bytes + " bytes copied) in "
+					+ duration.toMillis() + "ms";
+		}
+
+	}
+
+}
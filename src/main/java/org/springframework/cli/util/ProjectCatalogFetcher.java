@@ -0,0 +1,165 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cli.util;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.cli.SpringCliException;
+import org.springframework.cli.config.SpringCliUserConfig.ProjectCatalog;
+import org.springframework.cli.config.SpringCliUserConfig.ProjectRepositories;
+import org.springframework.cli.config.SpringCliUserConfig.ProjectRepository;
+import org.springframework.cli.git.SourceRepositoryService;
+import org.springframework.cli.support.configfile.YamlConfigFile;
+import org.springframework.util.Assert;
+import org.springframework.util.FileSystemUtils;
+
+/**
+ * Reads the {@code project-catalog.yml} of project catalogs. Catalogs are retrieved
+ * concurrently on a bounded pool of threads, results are always reported in the order
+ * of the given catalogs, which is their priority.
+ */
+public class ProjectCatalogFetcher {
+
+	private static final Logger logger = LoggerFactory.getLogger(ProjectCatalogFetcher.class);
+
+	private static final String PROJECT_CATALOG_FILE_NAME = "project-catalog.yml";
+
+	private static final int DEFAULT_PARALLELISM = 4;
+
+	private final SourceRepositoryService sourceRepositoryService;
+
+	private final int parallelism;
+
+	/**
+	 * Creates a fetcher retrieving at most four catalogs at a time.
+	 *
+	 * @param sourceRepositoryService the service retrieving catalog repositories
+	 */
+	public ProjectCatalogFetcher(SourceRepositoryService sourceRepositoryService) {
+		this(sourceRepositoryService, DEFAULT_PARALLELISM);
+	}
+
+	/**
+	 * Creates a fetcher.
+	 *
+	 * @param sourceRepositoryService the service retrieving catalog repositories
+	 * @param parallelism the maximum number of catalogs retrieved at a time
+	 */
+	public ProjectCatalogFetcher(SourceRepositoryService sourceRepositoryService, int parallelism) {
+		Assert.notNull(sourceRepositoryService, "sourceRepositoryService must be set");
+		Assert.isTrue(parallelism > 0, "parallelism must be positive");
+		this.sourceRepositoryService = sourceRepositoryService;
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * Reads the projects of all catalogs.
+	 *
+	 * @param projectCatalogs the catalogs in priority order
+	 * @return the projects of each catalog, in the order of the catalogs
+	 */
+	public List<CatalogProjects> fetchAll(List<ProjectCatalog> projectCatalogs) {
+		if (projectCatalogs == null || projectCatalogs.isEmpty()) {
+			return Collections.emptyList();
+		}
+		ExecutorService executor = createExecutor(projectCatalogs.size());
+		try {
+			List<Future<CatalogProjects>> futures = submit(executor, projectCatalogs);
+			List<CatalogProjects> result = new ArrayList<>(futures.size());
+			for (Future<CatalogProjects> future : futures) {
+				result.add(await(future));
+			}
+			return result;
+		}
+		finally {
+			executor.shutdown();
+		}
+	}
+
+	private List<Future<CatalogProjects>> submit(ExecutorService executor, List<ProjectCatalog> projectCatalogs) {
+		List<Future<CatalogProjects>> futures = new ArrayList<>(projectCatalogs.size());
+		for (ProjectCatalog projectCatalog : projectCatalogs) {
+			futures.add(executor.submit(() -> fetch(projectCatalog)));
+		}
+		return futures;
+	}
+
+	private CatalogProjects fetch(ProjectCatalog projectCatalog) {
+		Path path = sourceRepositoryService.retrieveRepositoryFile(projectCatalog.getUrl(),
+				PROJECT_CATALOG_FILE_NAME);
+		try {
+			YamlConfigFile yamlConfigFile = new YamlConfigFile();
+			List<ProjectRepository> projectRepositories = yamlConfigFile
+					.read(path.resolve(PROJECT_CATALOG_FILE_NAME), ProjectRepositories.class)
+					.getProjectRepositories();
+			return new CatalogProjects(projectCatalog,
+					projectRepositories != null ? projectRepositories : Collections.emptyList());
+		}
+		finally {
+			try {
+				FileSystemUtils.deleteRecursively(path);
+			}
+			catch (IOException ex) {
+				logger.warn("Could not delete path " + path, ex);
+			}
+		}
+	}
+
+	private ExecutorService createExecutor(int catalogCount) {
+		return Executors.newFixedThreadPool(Math.min(parallelism, catalogCount), runnable -> {
+			Thread thread = new Thread(runnable, "project-catalog-fetcher");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	private static CatalogProjects await(Future<CatalogProjects> future) {
+		try {
+			return future.get();
+		}
+		catch (ExecutionException ex) {
+			if (ex.getCause() instanceof RuntimeException runtimeException) {
+				throw runtimeException;
+			}
+			throw new SpringCliException("Could not read project catalog", ex.getCause());
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new SpringCliException("Interrupted while reading project catalogs", ex);
+		}
+	}
+
+	/**
+	 * The projects contained in a catalog.
+	 *
+	 * @param projectCatalog the catalog
+	 * @param projectRepositories the projects of the catalog
+	 */
+	public record CatalogProjects(ProjectCatalog projectCatalog, List<ProjectRepository> projectRepositories) {
+	}
+
+}
@@ -0,0 +1,284 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cli.util;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.cli.SpringCliException;
+import org.springframework.cli.config.SpringCliUserConfig;
+import org.springframework.cli.config.SpringCliUserConfig.IndexedProject;
+import org.springframework.cli.config.SpringCliUserConfig.IndexedProjects;
+import org.springframework.cli.config.SpringCliUserConfig.ProjectCatalog;
+import org.springframework.cli.config.SpringCliUserConfig.ProjectRepository;
+import org.springframework.cli.git.SourceRepositoryService;
+import org.springframework.cli.support.configfile.YamlConfigFile;
+import org.springframework.cli.util.ProjectCatalogFetcher.CatalogProjects;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+/**
+ * Local index of the projects contained in the installed project catalogs, stored as
+ * {@link SpringCliUserConfig#PROJECT_CATALOG_INDEX_FILE_NAME} in the config dir. The
+ * index is built on first use and rebuilt whenever catalogs are added or removed. Once
+ * it is older than its time to live it is refreshed on the next lookup. In the
+ * interactive shell lookups keep answering from the old index while it is refreshed in
+ * the background, a one-shot command could exit before a background refresh completes.
+ */
+public class ProjectCatalogIndexer {
+
+	private static final Logger logger = LoggerFactory.getLogger(ProjectCatalogIndexer.class);
+
+	private static final Duration DEFAULT_TTL = Duration.ofHours(24);
+
+	private final SpringCliUserConfig userConfig;
+
+	private final ProjectCatalogFetcher projectCatalogFetcher;
+
+	private final Duration ttl;
+
+	private final boolean offline;
+
+	private final boolean backgroundRefresh;
+
+	private final AtomicBoolean refreshing = new AtomicBoolean();
+
+	private volatile Index index;
+
+	/**
+	 * Creates an indexer refreshing the index once a day, while looking up projects.
+	 *
+	 * @param userConfig the user config holding the installed catalogs
+	 * @param sourceRepositoryService the service retrieving catalog repositories
+	 */
+	public ProjectCatalogIndexer(SpringCliUserConfig userConfig, SourceRepositoryService sourceRepositoryService) {
+		this(userConfig, sourceRepositoryService, DEFAULT_TTL, false, false);
+	}
+
+	/**
+	 * Creates an indexer.
+	 *
+	 * @param userConfig the user config holding the installed catalogs
+	 * @param sourceRepositoryService the service retrieving catalog repositories
+	 * @param ttl the age after which the index is refreshed
+	 * @param offline whether an existing index is used as is, however old or incomplete
+	 * @param backgroundRefresh whether an index older than its time to live is refreshed
+	 * in the background, only suitable if the process outlives the refresh
+	 */
+	public ProjectCatalogIndexer(SpringCliUserConfig userConfig, SourceRepositoryService sourceRepositoryService,
+			Duration ttl, boolean offline, boolean backgroundRefresh) {
+		Assert.notNull(userConfig, "userConfig must be set");
+		Assert.notNull(ttl, "ttl must be set");
+		this.userConfig = userConfig;
+		this.projectCatalogFetcher = new ProjectCatalogFetcher(sourceRepositoryService);
+		this.ttl = ttl;
+		this.offline = offline;
+		this.backgroundRefresh = backgroundRefresh;
+	}
+
+	/**
+	 * Gets the projects of all installed catalogs, in catalog priority order.
+	 *
+	 * @return the indexed projects
+	 */
+	public List<IndexedProject> getProjects() {
+		return currentIndex().indexedProjects().getProjects();
+	}
+
+	/**
+	 * Finds a project by name, ignoring case. If several catalogs contain a project with
+	 * the name, the one from the catalog with the highest priority is returned.
+	 *
+	 * @param name the project name
+	 * @return the project, if any catalog contains it
+	 */
+	public Optional<IndexedProject> findByName(String name) {
+		return Optional.ofNullable(currentIndex().byName().get(nameKey(name)));
+	}
+
+	/**
+	 * Rebuilds the index from the installed catalogs.
+	 *
+	 * @return the rebuilt index
+	 */
+	public IndexedProjects refresh() {
+		List<ProjectCatalog> projectCatalogs = getProjectCatalogs();
+		IndexedProjects indexedProjects = new IndexedProjects();
+		indexedProjects.setCatalogs(catalogKeys(projectCatalogs));
+		for (CatalogProjects catalogProjects : projectCatalogFetcher.fetchAll(projectCatalogs)) {
+			for (ProjectRepository projectRepository : catalogProjects.projectRepositories()) {
+				indexedProjects.getProjects().add(IndexedProject.of(projectRepository.getName(),
+						projectRepository.getDescription(), projectRepository.getUrl(), projectRepository.getTags(),
+						catalogProjects.projectCatalog().getName()));
+			}
+		}
+		indexedProjects.setRefreshed(System.currentTimeMillis());
+		write(indexedProjects);
+		this.index = Index.of(indexedProjects);
+		logger.debug("Indexed " + indexedProjects.getProjects().size() + " projects from "
+				+ projectCatalogs.size() + " catalogs");
+		return indexedProjects;
+	}
+
+	private Index currentIndex() {
+		List<ProjectCatalog> projectCatalogs = getProjectCatalogs();
+		if (projectCatalogs.isEmpty()) {
+			return Index.of(new IndexedProjects());
+		}
+		List<String> catalogKeys = catalogKeys(projectCatalogs);
+		Index current = this.index;
+		if (current == null || !catalogKeys.equals(current.indexedProjects().getCatalogs())) {
+			current = read();
+		}
+		if (offline && current != null) {
+			this.index = current;
+			return current;
+		}
+		if (current == null || !catalogKeys.equals(current.indexedProjects().getCatalogs())) {
+			// missing, or catalogs were added or removed since it was built
+			return Index.of(refresh());
+		}
+		this.index = current;
+		long age = System.currentTimeMillis() - current.indexedProjects().getRefreshed();
+		if (age > ttl.toMillis()) {
+			if (backgroundRefresh) {
+				refreshInBackground();
+			}
+			else {
+				try {
+					return Index.of(refresh());
+				}
+				catch (RuntimeException ex) {
+					logger.debug("Could not refresh project catalog index, using the existing one", ex);
+				}
+			}
+		}
+		return current;
+	}
+
+	private void refreshInBackground() {
+		if (!refreshing.compareAndSet(false, true)) {
+			return;
+		}
+		Thread thread = new Thread(() -> {
+			try {
+				refresh();
+			}
+			catch (RuntimeException ex) {
+				logger.debug("Could not refresh project catalog index", ex);
+			}
+			finally {
+				refreshing.set(false);
+			}
+		}, "project-catalog-index-refresh");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	private List<ProjectCatalog> getProjectCatalogs() {
+		List<ProjectCatalog> projectCatalogs = userConfig.getProjectCatalogs().getProjectCatalogs();
+		return projectCatalogs != null ? projectCatalogs : Collections.emptyList();
+	}
+
+	private Index read() {
+		Path path = getIndexPath();
+		if (!Files.isRegularFile(path)) {
+			return null;
+		}
+		try {
+			return Index.of(new YamlConfigFile().read(path, IndexedProjects.class));
+		}
+		catch (RuntimeException ex) {
+			logger.debug("Ignoring unreadable project catalog index " + path, ex);
+			return null;
+		}
+	}
+
+	private void write(IndexedProjects indexedProjects) {
+		Path path = getIndexPath();
+		Path tempPath = path.resolveSibling(path.getFileName() + ".tmp-" + UUID.randomUUID());
+		try {
+			Files.createDirectories(path.getParent());
+			new YamlConfigFile().write(tempPath, indexedProjects);
+			// replace atomically, readers never see a partly written index
+			try {
+				Files.move(tempPath, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			}
+			catch (AtomicMoveNotSupportedException ex) {
+				Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING);
+			}
+		}
+		catch (IOException | RuntimeException ex) {
+			throw new SpringCliException("Could not write project catalog index " + path, ex);
+		}
+		finally {
+			try {
+				Files.deleteIfExists(tempPath);
+			}
+			catch (IOException ex) {
+				logger.warn("Could not delete path " + tempPath, ex);
+			}
+		}
+	}
+
+	private Path getIndexPath() {
+		return userConfig.getConfigDir().resolve(SpringCliUserConfig.PROJECT_CATALOG_INDEX_FILE_NAME);
+	}
+
+	private static List<String> catalogKeys(List<ProjectCatalog> projectCatalogs) {
+		List<String> catalogKeys = new ArrayList<>(projectCatalogs.size());
+		for (ProjectCatalog projectCatalog : projectCatalogs) {
+			catalogKeys.add(projectCatalog.getName() + "=" + projectCatalog.getUrl());
+		}
+		return catalogKeys;
+	}
+
+	private static String nameKey(String name) {
+		return name.trim().toLowerCase(Locale.ROOT);
+	}
+
+	private record Index(IndexedProjects indexedProjects, Map<String, IndexedProject> byName) {
+
+		static Index of(IndexedProjects indexedProjects) {
+			Map<String, IndexedProject> byName = new HashMap<>();
+			for (IndexedProject project : indexedProjects.getProjects()) {
+				if (StringUtils.hasText(project.getName()) && StringUtils.hasText(project.getUrl())) {
+					// catalogs are indexed in priority order, the first one wins
+					byName.putIfAbsent(nameKey(project.getName()), project);
+				}
+			}
+			return new Index(indexedProjects, byName);
+		}
+
+	}
+
+}
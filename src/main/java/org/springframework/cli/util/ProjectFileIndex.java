@@ -0,0 +1,162 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cli.util;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.cli.SpringCliException;
+import org.springframework.util.Assert;
+
+/**
+ * The files of a project, collected in a single walk of the project directory so that
+ * the phases of a merge or refactoring can query them instead of each walking the tree
+ * again. For every file the size and last modified time are recorded, Java files are
+ * also flagged when they contain {@code @SpringBootApplication}.
+ * <p>
+ * The index is a snapshot, it has to be rebuilt once files are added, moved or removed.
+ */
+public final class ProjectFileIndex {
+
+	private static final Path MAIN_JAVA_PATH = Path.of("src", "main", "java");
+
+	private final Path root;
+
+	private final List<IndexedFile> files;
+
+	private ProjectFileIndex(Path root, List<IndexedFile> files) {
+		this.root = root;
+		this.files = files;
+	}
+
+	/**
+	 * Indexes the files below a project directory. {@code .git} directories are skipped.
+	 *
+	 * @param root the project directory
+	 * @return the index
+	 */
+	public static ProjectFileIndex of(Path root) {
+		Assert.notNull(root, "root must be set");
+		List<IndexedFile> files = new ArrayList<>();
+		try {
+			Files.walkFileTree(root, new SimpleFileVisitor<>() {
+
+				@Override
+				public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+					if (!dir.equals(root) && dir.getFileName().toString().equals(".git")) {
+						return FileVisitResult.SKIP_SUBTREE;
+					}
+					return FileVisitResult.CONTINUE;
+				}
+
+				@Override
+				public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+					if (attrs.isRegularFile()) {
+						boolean springBootApplication = file.getFileName().toString().endsWith(".java")
+								&& RootPackageFinder.containsSpringBootApplication(file);
+						files.add(new IndexedFile(root.relativize(file), attrs.size(),
+								attrs.lastModifiedTime().toMillis(), springBootApplication));
+					}
+					return FileVisitResult.CONTINUE;
+				}
+
+			});
+		}
+		catch (IOException ex) {
+			throw new SpringCliException("Failed reading files in " + root, ex);
+		}
+		files.sort(Comparator.comparing(IndexedFile::path));
+		return new ProjectFileIndex(root, Collections.unmodifiableList(files));
+	}
+
+	/**
+	 * Gets the project directory.
+	 *
+	 * @return the project directory
+	 */
+	public Path getRoot() {
+		return this.root;
+	}
+
+	/**
+	 * Gets all files of the project.
+	 *
+	 * @return the files, sorted by path
+	 */
+	public List<IndexedFile> getFiles() {
+		return this.files;
+	}
+
+	/**
+	 * Gets the files with an extension.
+	 *
+	 * @param extension the extension, with or without the leading dot
+	 * @return the absolute paths of the files, sorted by path
+	 */
+	public List<Path> getPaths(String extension) {
+		String suffix = extension.startsWith(".") ? extension : "." + extension;
+		List<Path> paths = new ArrayList<>();
+		for (IndexedFile file : this.files) {
+			if (file.path().getFileName().toString().endsWith(suffix)) {
+				paths.add(this.root.resolve(file.path()));
+			}
+		}
+		return paths;
+	}
+
+	/**
+	 * Finds the file annotated with {@code @SpringBootApplication}, preferring files
+	 * below {@code src/main/java}.
+	 *
+	 * @return the file, if the project has one
+	 */
+	public Optional<IndexedFile> findSpringBootApplicationFile() {
+		IndexedFile candidate = null;
+		for (IndexedFile file : this.files) {
+			if (file.springBootApplication()) {
+				if (file.path().startsWith(MAIN_JAVA_PATH)) {
+					return Optional.of(file);
+				}
+				if (candidate == null) {
+					candidate = file;
+				}
+			}
+		}
+		return Optional.ofNullable(candidate);
+	}
+
+	/**
+	 * A file of the project.
+	 *
+	 * @param path the path relative to the project directory
+	 * @param size the size in bytes
+	 * @param lastModified the last modified time in milliseconds
+	 * @param springBootApplication whether this is a Java file containing
+	 * {@code @SpringBootApplication}
+	 */
+	public record IndexedFile(Path path, long size, long lastModified, boolean springBootApplication) {
+	}
+
+}
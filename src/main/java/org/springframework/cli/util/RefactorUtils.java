@@ -18,9 +18,14 @@
 package org.springframework.cli.util;
 
 import java.io.IOException;
-import java.nio.file.Files;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.Consumer;
 
 import org.openrewrite.InMemoryExecutionContext;
@@ -39,27 +44,72 @@ public class RefactorUtils {
 
 	private static final Logger logger = LoggerFactory.getLogger(RefactorUtils.class);
 
+	private static final int MIN_BATCH_SIZE = 50;
+
 
 	public static void refactorPackage(String newPackage, String oldPackage, Path workingPath) {
-		JavaParser javaParser = new Java17Parser.Builder().build();
-		FileTypeCollectingFileVisitor collector = new FileTypeCollectingFileVisitor(".java");
+		refactorPackage(newPackage, oldPackage, ProjectFileIndex.of(workingPath));
+	}
+
+	/**
+	 * Moves the Java files of a project from one package to another. Only files that
+	 * mention the old package can change, so only those are considered. Simple renames
+	 * are done as text, others are parsed in batches spread over the available
+	 * processors and refactored with OpenRewrite.
+	 *
+	 * @param newPackage the package to move to
+	 * @param oldPackage the package to move from
+	 * @param projectFileIndex the files of the project, stale once this method returns
+	 */
+	public static void refactorPackage(String newPackage, String oldPackage, ProjectFileIndex projectFileIndex) {
+		List<Path> matches = findFilesContaining(projectFileIndex.getPaths(".java"), oldPackage);
+		logger.debug("Refactoring " + matches.size() + " java files referring to package " + oldPackage);
+		if (matches.isEmpty()) {
+			return;
+		}
+		if (new TextPackageRefactorer(oldPackage, newPackage).refactor(matches)) {
+			return;
+		}
+		logger.debug("Falling back to OpenRewrite to refactor package " + oldPackage);
+		List<Result> results = new ArrayList<>();
+		ExecutorService executor = null;
 		try {
-			Files.walkFileTree(workingPath, collector);
+			List<List<Path>> batches = partition(matches);
+			if (batches.size() == 1) {
+				results.addAll(changePackage(newPackage, oldPackage, batches.get(0)));
+			}
+			else {
+				executor = Executors.newFixedThreadPool(batches.size(), runnable -> {
+					Thread thread = new Thread(runnable, "refactor-package");
+					thread.setDaemon(true);
+					return thread;
+				});
+				List<Future<List<Result>>> futures = new ArrayList<>();
+				for (List<Path> batch : batches) {
+					futures.add(executor.submit(() -> changePackage(newPackage, oldPackage, batch)));
+				}
+				for (Future<List<Result>> future : futures) {
+					results.addAll(future.get());
+				}
+			}
 		}
-		catch (IOException e) {
-			throw new SpringCliException("Failed reading files in " + workingPath, e);
+		catch (ExecutionException ex) {
+			if (ex.getCause() instanceof RuntimeException runtimeException) {
+				throw runtimeException;
+			}
+			throw new SpringCliException("Error performing refactoring", ex.getCause());
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new SpringCliException("Interrupted while performing refactoring", ex);
+		}
+		finally {
+			if (executor != null) {
+				executor.shutdownNow();
+			}
 		}
-		Consumer<Throwable> onError = e -> {
-			logger.error("error in javaParser execution", e);
-		};
-		InMemoryExecutionContext executionContext = new InMemoryExecutionContext(onError);
-		List<Path> matches = collector.getMatches();
-		List<? extends SourceFile> compilationUnits = javaParser.parse(matches, null, executionContext);
-		ResultsExecutor container = new ResultsExecutor();
 
-		ChangePackage recipe = new ChangePackage(oldPackage, newPackage, true);
-		RecipeRun run = recipe.run(compilationUnits);
-		List<Result> results = run.getResults();
+		ResultsExecutor container = new ResultsExecutor();
 		container.addAll(results);
 		try {
 			container.execute();
@@ -70,4 +120,50 @@ public class RefactorUtils {
 
 		//TODO change groupId and artifactId
 	}
+
+	private static List<Result> changePackage(String newPackage, String oldPackage, List<Path> paths) {
+		// parsers are not thread safe, each batch gets its own
+		JavaParser javaParser = new Java17Parser.Builder().build();
+		Consumer<Throwable> onError = e -> {
+			logger.error("error in javaParser execution", e);
+		};
+		InMemoryExecutionContext executionContext = new InMemoryExecutionContext(onError);
+		List<? extends SourceFile> compilationUnits = javaParser.parse(paths, null, executionContext);
+		ChangePackage recipe = new ChangePackage(oldPackage, newPackage, true);
+		RecipeRun run = recipe.run(compilationUnits);
+		return run.getResults();
+	}
+
+	private static List<Path> findFilesContaining(List<Path> paths, String text) {
+		byte[] pattern = text.getBytes(StandardCharsets.UTF_8);
+		List<Path> matches = new ArrayList<>();
+		for (Path path : paths) {
+			try {
+				if (ByteSearch.contains(path, pattern)) {
+					matches.add(path);
+				}
+			}
+			catch (IOException ex) {
+				throw new SpringCliException("Failed reading " + path, ex);
+			}
+		}
+		return matches;
+	}
+
+	/**
+	 * Splits the paths into one batch per processor, keeping neighbouring files, which
+	 * are mostly of the same package, in the same batch. Small projects are parsed in
+	 * a single batch.
+	 */
+	private static List<List<Path>> partition(List<Path> paths) {
+		int batchCount = Math.max(1,
+				Math.min(Runtime.getRuntime().availableProcessors(), paths.size() / MIN_BATCH_SIZE));
+		int batchSize = (paths.size() + batchCount - 1) / batchCount;
+		List<List<Path>> batches = new ArrayList<>(batchCount);
+		for (int i = 0; i < paths.size(); i += batchSize) {
+			batches.add(paths.subList(i, Math.min(paths.size(), i + batchSize)));
+		}
+		return batches;
+	}
+
 }
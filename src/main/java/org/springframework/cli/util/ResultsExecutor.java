@@ -18,13 +18,22 @@ package org.springframework.cli.util;
 
 import java.io.BufferedWriter;
 import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Stream;
 
 import org.openrewrite.Result;
@@ -87,34 +96,123 @@ public class ResultsExecutor {
 		results.addAll(more);
 	}
 
+	/**
+	 * Applies the results. Deletions and the removal of moved files happen first, then the
+	 * updated files are written in parallel, each to a temporary sibling that is renamed
+	 * into place. Directories left empty are removed in a single final pass.
+	 */
 	public void execute() throws IOException {
 		check();
 
+		Set<Path> vacatedDirs = new HashSet<>();
+		List<Callable<Void>> deletions = new ArrayList<>();
+		List<Callable<Void>> writes = new ArrayList<>();
 		for (Result result : results) {
 			if (result.getAfter() == null || fileMoved(result)) {
-				Files.delete(result.getBefore().getSourcePath());
-				if (deleteEmptyDirs) {
-					deleteUpwardsUntilNotEmpty(result.getBefore().getSourcePath().getParent());
+				Path beforePath = result.getBefore().getSourcePath();
+				deletions.add(() -> {
+					Files.delete(beforePath);
+					return null;
+				});
+				if (beforePath.getParent() != null) {
+					vacatedDirs.add(beforePath.getParent());
 				}
 			}
 			if (result.getAfter() != null) {
-				Path afterPath = result.getAfter().getSourcePath();
-				afterPath.toFile().getParentFile().mkdirs();
-				try (BufferedWriter sourceFileWriter = Files.newBufferedWriter(afterPath)) {
-					sourceFileWriter.write(result.getAfter().printAll());
-				}
+				writes.add(() -> {
+					write(result.getAfter().getSourcePath(), result.getAfter().printAll());
+					return null;
+				});
+			}
+		}
+		runAll(deletions);
+		runAll(writes);
+		if (deleteEmptyDirs) {
+			deleteEmptyDirs(vacatedDirs);
+		}
+	}
+
+	private static void write(Path path, String content) throws IOException {
+		Files.createDirectories(path.getParent());
+		Path tempPath = path.resolveSibling("." + path.getFileName() + "." + UUID.randomUUID() + ".tmp");
+		try {
+			try (BufferedWriter sourceFileWriter = Files.newBufferedWriter(tempPath)) {
+				sourceFileWriter.write(content);
+			}
+			try {
+				Files.move(tempPath, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			}
+			catch (AtomicMoveNotSupportedException ex) {
+				Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING);
+			}
+		}
+		finally {
+			Files.deleteIfExists(tempPath);
+		}
+	}
+
+	private static void runAll(List<Callable<Void>> tasks) throws IOException {
+		if (tasks.isEmpty()) {
+			return;
+		}
+		if (tasks.size() == 1) {
+			call(tasks.get(0));
+			return;
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(
+				Math.min(Runtime.getRuntime().availableProcessors(), tasks.size()), runnable -> {
+					Thread thread = new Thread(runnable, "results-executor");
+					thread.setDaemon(true);
+					return thread;
+				});
+		try {
+			for (Future<Void> future : executor.invokeAll(tasks)) {
+				future.get();
 			}
 		}
+		catch (ExecutionException ex) {
+			if (ex.getCause() instanceof IOException ioException) {
+				throw ioException;
+			}
+			if (ex.getCause() instanceof RuntimeException runtimeException) {
+				throw runtimeException;
+			}
+			throw new SpringCliException("Error applying results", ex.getCause());
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new SpringCliException("Interrupted while applying results", ex);
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private static void call(Callable<Void> task) throws IOException {
+		try {
+			task.call();
+		}
+		catch (IOException | RuntimeException ex) {
+			throw ex;
+		}
+		catch (Exception ex) {
+			throw new SpringCliException("Error applying results", ex);
+		}
 	}
 
 	/**
-	 * Walks the directory hierarchy upwards and deletes any empty directories.
-	 * @param dir the initial directory to consider
+	 * Deletes the given directories if empty, and their parents in turn. Deepest
+	 * directories go first, so a shared parent is only looked at once its emptied
+	 * children are gone.
 	 */
-	private void deleteUpwardsUntilNotEmpty(Path dir) throws IOException {
-		if (isEmptyDirectory(dir)) {
-			Files.delete(dir);
-			deleteUpwardsUntilNotEmpty(dir.getParent());
+	private void deleteEmptyDirs(Set<Path> dirs) throws IOException {
+		List<Path> sortedDirs = new ArrayList<>(dirs);
+		sortedDirs.sort(Comparator.comparingInt(Path::getNameCount).reversed());
+		for (Path dir : sortedDirs) {
+			while (dir != null && isEmptyDirectory(dir)) {
+				Files.delete(dir);
+				dir = dir.getParent();
+			}
 		}
 	}
 
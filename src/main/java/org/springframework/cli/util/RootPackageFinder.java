@@ -19,80 +19,73 @@ package org.springframework.cli.util;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.List;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
-import org.apache.tools.ant.DirectoryScanner;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import org.springframework.cli.SpringCliException;
+import org.springframework.lang.Nullable;
 
+/**
+ * Finds the class annotated with {@code @SpringBootApplication} and the root package it
+ * declares. Files below {@code src/main/java} are searched before the rest of the
+ * project, file contents are searched as bytes and the search stops at the first match.
+ */
 public class RootPackageFinder {
 
 	private static final Logger logger = LoggerFactory.getLogger(RootPackageFinder.class);
 
-	public static Optional<String> findRootPackage(File baseDirectory) {
-		String[] fileNames = getFileNames(baseDirectory);
-
-		for (String fileName : fileNames) {
-			logger.debug("Looking for @SpringBootApplication in file = " + fileName);
-			try {
-				File fileToTest = new File(baseDirectory, fileName);
-				List<String> lines = Files.lines(fileToTest.toPath())
-						.filter(line -> line.contains("@SpringBootApplication"))
-						.collect(Collectors.toList());
-				if (lines.isEmpty()) {
-					continue;
-				} else {
-					return Optional.of(extractRootPackageName(new File(fileName)));
-				}
-			}
-			catch (IOException e) {
-				throw new SpringCliException("Exception reading " + fileName + " " + e.getMessage(), e);
+	private static final byte[] SPRING_BOOT_APPLICATION = "@SpringBootApplication".getBytes(StandardCharsets.US_ASCII);
 
-			}
-		}
-		return Optional.empty();
-	}
+	private static final Pattern PACKAGE_DECLARATION = Pattern.compile("^\\s*package\\s+([\\w.]+)\\s*;",
+			Pattern.MULTILINE | Pattern.UNICODE_CHARACTER_CLASS);
 
+	public static Optional<String> findRootPackage(File baseDirectory) {
+		return findSpringBootApplicationFile(baseDirectory).flatMap(file -> readPackageName(file.toPath()));
+	}
 
 	public static Optional<File> findSpringBootApplicationFile(File baseDirectory) {
-		String[] fileNames = getFileNames(baseDirectory);
-		for (String fileName : fileNames) {
-			logger.debug("Looking for @SpringBootApplication in file = " + fileName);
-			try {
-				File fileToTest = new File(baseDirectory, fileName);
-				List<String> lines = Files.lines(fileToTest.toPath())
-						.filter(line -> line.contains("@SpringBootApplication"))
-						.collect(Collectors.toList());
-				if (lines.isEmpty()) {
-					continue;
-				} else {
-					return Optional.of(new File(baseDirectory, fileName));
-				}
-			}
-			catch (IOException e) {
-				e.printStackTrace();
-				throw new SpringCliException("Exception reading " + fileName + " " + e.getMessage(), e);
-
-			}
+		Path basePath = baseDirectory.toPath();
+		Path mainJavaPath = basePath.resolve("src").resolve("main").resolve("java");
+		Path match = null;
+		if (Files.isDirectory(mainJavaPath)) {
+			match = findSpringBootApplicationFile(mainJavaPath, null);
+		}
+		if (match == null && Files.isDirectory(basePath)) {
+			match = findSpringBootApplicationFile(basePath, mainJavaPath);
 		}
-		return Optional.empty();
+		return Optional.ofNullable(match).map(Path::toFile);
 	}
 
+	/**
+	 * Finds the root package from an index of the project files.
+	 *
+	 * @param projectFileIndex the project files
+	 * @return the package of the class annotated with {@code @SpringBootApplication}
+	 */
+	public static Optional<String> findRootPackage(ProjectFileIndex projectFileIndex) {
+		return findSpringBootApplicationFile(projectFileIndex).flatMap(file -> readPackageName(file.toPath()));
+	}
 
-	private static String[] getFileNames(File baseDirectory) {
-		DirectoryScanner ds = new DirectoryScanner();
-		String[] includes = { "**\\*.java" };
-		ds.setBasedir(baseDirectory);
-		ds.setIncludes(includes);
-		ds.scan();
-		String[] fileNames = ds.getIncludedFiles();
-		return fileNames;
+	/**
+	 * Finds the class annotated with {@code @SpringBootApplication} from an index of the
+	 * project files.
+	 *
+	 * @param projectFileIndex the project files
+	 * @return the file of the class
+	 */
+	public static Optional<File> findSpringBootApplicationFile(ProjectFileIndex projectFileIndex) {
+		return projectFileIndex.findSpringBootApplicationFile()
+				.map(indexedFile -> projectFileIndex.getRoot().resolve(indexedFile.path()).toFile());
 	}
 
 	public static String extractRootPackageName(File file) {
@@ -113,4 +106,67 @@ public class RootPackageFinder {
 		String packageName = sb.toString();
 		return packageName;
 	}
+
+	/**
+	 * Tells whether a file contains {@code @SpringBootApplication}, reading it only up to
+	 * the first occurrence.
+	 *
+	 * @param file the file to search
+	 * @return {@code true} if the file contains the annotation
+	 * @throws IOException if the file could not be read
+	 */
+	static boolean containsSpringBootApplication(Path file) throws IOException {
+		return ByteSearch.contains(file, SPRING_BOOT_APPLICATION);
+	}
+
+	@Nullable
+	private static Path findSpringBootApplicationFile(Path directory, @Nullable Path excludedDirectory) {
+		Path[] match = new Path[1];
+		try {
+			Files.walkFileTree(directory, new SimpleFileVisitor<>() {
+
+				@Override
+				public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+					if (dir.equals(excludedDirectory) || dir.getFileName().toString().equals(".git")) {
+						return FileVisitResult.SKIP_SUBTREE;
+					}
+					return FileVisitResult.CONTINUE;
+				}
+
+				@Override
+				public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+					if (attrs.isRegularFile() && file.getFileName().toString().endsWith(".java")) {
+						logger.debug("Looking for @SpringBootApplication in file = " + file);
+						if (containsSpringBootApplication(file)) {
+							match[0] = file;
+							return FileVisitResult.TERMINATE;
+						}
+					}
+					return FileVisitResult.CONTINUE;
+				}
+
+			});
+		}
+		catch (IOException ex) {
+			throw new SpringCliException("Exception reading files in " + directory + " " + ex.getMessage(), ex);
+		}
+		return match[0];
+	}
+
+	private static Optional<String> readPackageName(Path file) {
+		try {
+			// decoding replaces malformed input instead of failing, only the declaration matters
+			String content = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+			Matcher matcher = PACKAGE_DECLARATION.matcher(content);
+			if (matcher.find()) {
+				return Optional.of(matcher.group(1));
+			}
+			logger.debug("No package declaration found in " + file);
+			return Optional.empty();
+		}
+		catch (IOException ex) {
+			throw new SpringCliException("Exception reading " + file + " " + ex.getMessage(), ex);
+		}
+	}
+
 }
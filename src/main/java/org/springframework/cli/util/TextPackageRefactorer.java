@@ -0,0 +1,403 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cli.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.cli.SpringCliException;
+import org.springframework.lang.Nullable;
+
+/**
+ * Renames a package by rewriting source text, without parsing or type attribution.
+ * Package declarations, imports and fully qualified references, including those in
+ * comments, are rewritten, and the files of the package are moved below their source
+ * root, a whole package directory at a time where possible.
+ * <p>
+ * The rename is only attempted when it can be done safely: the old package must have
+ * more than one segment and must not appear in string or character literals, packages
+ * must not be nested in each other, file locations must match their package declarations
+ * and moved files must not overwrite existing ones. Otherwise nothing is changed and {@link #refactor(List)}
+ * returns {@code false}, so callers can fall back to a full OpenRewrite refactoring.
+ */
+class TextPackageRefactorer {
+
+	private static final Logger logger = LoggerFactory.getLogger(TextPackageRefactorer.class);
+
+	private static final Pattern PACKAGE_DECLARATION = Pattern.compile("^\\s*package\\s+([\\w.]+)\\s*;",
+			Pattern.MULTILINE | Pattern.UNICODE_CHARACTER_CLASS);
+
+	private final String oldPackage;
+
+	private final String newPackage;
+
+	TextPackageRefactorer(String oldPackage, String newPackage) {
+		this.oldPackage = oldPackage;
+		this.newPackage = newPackage;
+	}
+
+	/**
+	 * Renames the package in the given files.
+	 *
+	 * @param javaFiles the Java files that may refer to the old package
+	 * @return {@code true} if the package was renamed, {@code false} if the files contain
+	 * constructs that can not be safely rewritten as text, nothing has been changed then
+	 */
+	boolean refactor(List<Path> javaFiles) {
+		if (this.oldPackage.equals(this.newPackage)) {
+			return true;
+		}
+		if (!this.oldPackage.contains(".")) {
+			// a single segment can not be told apart from variable, field and method names
+			logger.debug("Not renaming single segment package " + this.oldPackage + " as text");
+			return false;
+		}
+		if (this.newPackage.startsWith(this.oldPackage + ".") || this.oldPackage.startsWith(this.newPackage + ".")) {
+			logger.debug("Not renaming nested packages " + this.oldPackage + " and " + this.newPackage + " as text");
+			return false;
+		}
+		List<FilePlan> filePlans = new ArrayList<>();
+		for (FilePlan filePlan : runAll(javaFiles.stream().map(path -> (Callable<FilePlan>) () -> plan(path)).toList())) {
+			if (filePlan == null) {
+				return false;
+			}
+			filePlans.add(filePlan);
+		}
+		List<Move> moves = planMoves(filePlans);
+		if (moves == null) {
+			return false;
+		}
+
+		List<Callable<Void>> writes = new ArrayList<>();
+		for (FilePlan filePlan : filePlans) {
+			if (filePlan.content() != null) {
+				writes.add(() -> {
+					Files.writeString(filePlan.path(), filePlan.content(), StandardCharsets.UTF_8);
+					return null;
+				});
+			}
+		}
+		runAll(writes);
+		runAll(moves.stream().map(move -> (Callable<Void>) () -> {
+			Files.createDirectories(move.target().getParent());
+			Files.move(move.source(), move.target());
+			return null;
+		}).toList());
+		Set<Path> oldDirectories = new HashSet<>();
+		for (Move move : moves) {
+			oldDirectories.add(move.source().getParent());
+		}
+		for (Path oldDirectory : oldDirectories) {
+			deleteUpwardsUntilNotEmpty(oldDirectory);
+		}
+		logger.debug("Renamed package " + this.oldPackage + " to " + this.newPackage + " in " + writes.size()
+				+ " files with " + moves.size() + " moves");
+		return true;
+	}
+
+	/**
+	 * Plans the rewrite of a file.
+	 * @return the plan, or {@code null} if the file can not be rewritten safely
+	 */
+	@Nullable
+	private FilePlan plan(Path path) throws IOException {
+		String content;
+		try {
+			content = StandardCharsets.UTF_8.newDecoder()
+					.onMalformedInput(CodingErrorAction.REPORT)
+					.onUnmappableCharacter(CodingErrorAction.REPORT)
+					.decode(ByteBuffer.wrap(Files.readAllBytes(path)))
+					.toString();
+		}
+		catch (CharacterCodingException ex) {
+			logger.debug("Not renaming package as text in " + path + ", it is not UTF-8 encoded");
+			return null;
+		}
+		String rewritten = rewrite(content);
+		if (rewritten == null) {
+			logger.debug("Not renaming package as text in " + path + ", it is referred to in a literal");
+			return null;
+		}
+		Path sourceRoot = null;
+		Matcher matcher = PACKAGE_DECLARATION.matcher(content);
+		if (matcher.find() && isOldPackage(matcher.group(1))) {
+			sourceRoot = sourceRoot(path, matcher.group(1));
+			if (sourceRoot == null) {
+				logger.debug("Not renaming package as text, location of " + path + " does not match its package");
+				return null;
+			}
+		}
+		return new FilePlan(path, rewritten.equals(content) ? null : rewritten, sourceRoot);
+	}
+
+	/**
+	 * Plans the moves of the files, moving the old package directory of a source root as
+	 * a whole if it only contains files to move and the new one does not exist yet.
+	 * @return the moves, or {@code null} if files would be overwritten
+	 */
+	@Nullable
+	private List<Move> planMoves(List<FilePlan> filePlans) {
+		Map<Path, Set<Path>> filesBySourceRoot = new LinkedHashMap<>();
+		for (FilePlan filePlan : filePlans) {
+			if (filePlan.sourceRoot() != null) {
+				filesBySourceRoot.computeIfAbsent(filePlan.sourceRoot(), (key) -> new HashSet<>()).add(filePlan.path());
+			}
+		}
+		List<Move> moves = new ArrayList<>();
+		for (Map.Entry<Path, Set<Path>> entry : filesBySourceRoot.entrySet()) {
+			Path oldDirectory = resolvePackage(entry.getKey(), this.oldPackage);
+			Path newDirectory = resolvePackage(entry.getKey(), this.newPackage);
+			if (Files.notExists(newDirectory) && containsOnly(oldDirectory, entry.getValue())) {
+				moves.add(new Move(oldDirectory, newDirectory));
+				continue;
+			}
+			for (Path path : entry.getValue()) {
+				Path target = newDirectory.resolve(oldDirectory.relativize(path));
+				if (Files.exists(target)) {
+					logger.debug("Not renaming package as text, " + target + " already exists");
+					return null;
+				}
+				moves.add(new Move(path, target));
+			}
+		}
+		return moves;
+	}
+
+	/**
+	 * Rewrites references to the old package.
+	 * @return the rewritten content, or {@code null} if the old package is referred to
+	 * in a string, text block or character literal
+	 */
+	@Nullable
+	String rewrite(String content) {
+		StringBuilder result = new StringBuilder(content.length() + 64);
+		int length = content.length();
+		int copied = 0;
+		int i = 0;
+		while (i < length) {
+			char c = content.charAt(i);
+			if (c == '/' && i + 1 < length && (content.charAt(i + 1) == '/' || content.charAt(i + 1) == '*')) {
+				// references in comments are rewritten too, but quotes in them must not be
+				// taken for literals
+				int commentEnd;
+				if (content.charAt(i + 1) == '/') {
+					int end = content.indexOf('\n', i);
+					commentEnd = (end != -1) ? end : length;
+				}
+				else {
+					int end = content.indexOf("*/", i + 2);
+					commentEnd = (end != -1) ? end + 2 : length;
+				}
+				copied = replaceOccurrences(content, i, commentEnd, copied, result);
+				i = commentEnd;
+				continue;
+			}
+			if (c == '"' || c == '\'') {
+				int end = literalEnd(content, i);
+				if (containsOldPackage(content, i, end)) {
+					return null;
+				}
+				i = end;
+				continue;
+			}
+			if (isOldPackageAt(content, i)) {
+				result.append(content, copied, i).append(this.newPackage);
+				i += this.oldPackage.length();
+				copied = i;
+				continue;
+			}
+			i++;
+		}
+		return result.append(content, copied, length).toString();
+	}
+
+	private int replaceOccurrences(String content, int start, int end, int copied, StringBuilder result) {
+		for (int i = start; i < end; i++) {
+			if (isOldPackageAt(content, i)) {
+				result.append(content, copied, i).append(this.newPackage);
+				i += this.oldPackage.length() - 1;
+				copied = i + 1;
+			}
+		}
+		return copied;
+	}
+
+	private boolean containsOldPackage(String content, int start, int end) {
+		for (int i = start; i < end; i++) {
+			if (isOldPackageAt(content, i)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private boolean isOldPackageAt(String content, int index) {
+		if (!content.startsWith(this.oldPackage, index)) {
+			return false;
+		}
+		if (index > 0) {
+			char before = content.charAt(index - 1);
+			if (before == '.' || Character.isJavaIdentifierPart(before)) {
+				return false;
+			}
+		}
+		int end = index + this.oldPackage.length();
+		return end == content.length() || !Character.isJavaIdentifierPart(content.charAt(end));
+	}
+
+	private boolean isOldPackage(String packageName) {
+		return packageName.equals(this.oldPackage) || packageName.startsWith(this.oldPackage + ".");
+	}
+
+	/**
+	 * Finds the end of the string, text block or character literal starting at an index.
+	 */
+	private static int literalEnd(String content, int start) {
+		char quote = content.charAt(start);
+		boolean textBlock = quote == '"' && content.startsWith("\"\"\"", start);
+		int i = start + (textBlock ? 3 : 1);
+		while (i < content.length()) {
+			char c = content.charAt(i);
+			if (c == '\\') {
+				i += 2;
+				continue;
+			}
+			if (textBlock) {
+				if (content.startsWith("\"\"\"", i)) {
+					return i + 3;
+				}
+			}
+			else if (c == quote || c == '\n') {
+				return i + 1;
+			}
+			i++;
+		}
+		return content.length();
+	}
+
+	@Nullable
+	private static Path sourceRoot(Path file, String packageName) {
+		Path directory = file.getParent();
+		String[] segments = packageName.split("\\.");
+		for (int i = segments.length - 1; i >= 0; i--) {
+			if (directory == null || !directory.getFileName().toString().equals(segments[i])) {
+				return null;
+			}
+			directory = directory.getParent();
+		}
+		return directory;
+	}
+
+	private static Path resolvePackage(Path sourceRoot, String packageName) {
+		Path path = sourceRoot;
+		for (String segment : packageName.split("\\.")) {
+			path = path.resolve(segment);
+		}
+		return path;
+	}
+
+	private static boolean containsOnly(Path directory, Collection<Path> files) {
+		try (Stream<Path> paths = Files.walk(directory)) {
+			return paths.filter(path -> !Files.isDirectory(path)).allMatch(files::contains);
+		}
+		catch (IOException ex) {
+			throw new SpringCliException("Failed reading files in " + directory, ex);
+		}
+	}
+
+	private static void deleteUpwardsUntilNotEmpty(Path directory) {
+		try {
+			while (directory != null && Files.isDirectory(directory)) {
+				try (Stream<Path> entries = Files.list(directory)) {
+					if (entries.findFirst().isPresent()) {
+						return;
+					}
+				}
+				Files.delete(directory);
+				directory = directory.getParent();
+			}
+		}
+		catch (IOException ex) {
+			logger.debug("Could not delete empty directory " + directory, ex);
+		}
+	}
+
+	private static <T> List<T> runAll(List<Callable<T>> tasks) {
+		if (tasks.isEmpty()) {
+			return List.of();
+		}
+		int parallelism = Math.min(Runtime.getRuntime().availableProcessors(), tasks.size());
+		ExecutorService executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+			Thread thread = new Thread(runnable, "refactor-package");
+			thread.setDaemon(true);
+			return thread;
+		});
+		try {
+			List<T> results = new ArrayList<>(tasks.size());
+			for (Future<T> future : executor.invokeAll(tasks)) {
+				results.add(future.get());
+			}
+			return results;
+		}
+		catch (ExecutionException ex) {
+			throw new SpringCliException("Error performing refactoring", ex.getCause());
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new SpringCliException("Interrupted while performing refactoring", ex);
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * The rewrite of a file.
+	 *
+	 * @param path the file
+	 * @param content the rewritten content, {@code null} if unchanged
+	 * @param sourceRoot the source root, if the file is in the old package and moves
+	 */
+	private record FilePlan(Path path, @Nullable String content, @Nullable Path sourceRoot) {
+	}
+
+	private record Move(Path source, Path target) {
+	}
+
+}
@@ -29,6 +29,7 @@ import org.springframework.boot.test.context.runner.ApplicationContextRunner;
 import org.springframework.cli.git.GitSourceRepositoryService;
 import org.springframework.cli.git.SourceRepositoryService;
 import org.springframework.cli.config.SpringCliUserConfig;
+import org.springframework.cli.util.ProjectCatalogIndexer;
 import org.springframework.cli.util.TerminalMessage;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -107,7 +108,8 @@ public class ProjectCommandsTests {
 		@Bean
 		ProjectCommands projectCommands(SpringCliUserConfig springCliUserConfig,
 				SourceRepositoryService sourceRepositoryService) {
-			ProjectCommands projectCommands = new ProjectCommands(springCliUserConfig, sourceRepositoryService, TerminalMessage.noop());
+			ProjectCommands projectCommands = new ProjectCommands(springCliUserConfig, sourceRepositoryService,
+					new ProjectCatalogIndexer(springCliUserConfig, sourceRepositoryService), TerminalMessage.noop());
 			return projectCommands;
 		}
 	}
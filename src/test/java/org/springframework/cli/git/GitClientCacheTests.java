@@ -0,0 +1,67 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cli.git;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.kohsuke.github.GitHub;
+import org.kohsuke.github.GitHubBuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class GitClientCacheTests {
+
+	private final GitClientCache clientCache = new GitClientCache();
+
+	@Test
+	void buildsGitHubClientsOncePerKey() throws IOException {
+		AtomicInteger builds = new AtomicInteger();
+		GitClientCache.GitHubBuilderFactory builderFactory = () -> {
+			builds.incrementAndGet();
+			return new GitHubBuilder();
+		};
+
+		GitHub gitHub = clientCache.getGitHub("anonymous", builderFactory);
+
+		assertThat(clientCache.getGitHub("anonymous", builderFactory)).isSameAs(gitHub);
+		assertThat(clientCache.getGitHub("token:github.com#secret", builderFactory)).isNotSameAs(gitHub);
+		assertThat(builds).hasValue(2);
+	}
+
+	@Test
+	void remembersMissingCredentials() throws IOException {
+		AtomicInteger attempts = new AtomicInteger();
+		GitClientCache.GitHubBuilderFactory builderFactory = () -> {
+			attempts.incrementAndGet();
+			throw new FileNotFoundException(".github");
+		};
+
+		assertThat(clientCache.findGitHub("property-file", builderFactory)).isEmpty();
+		assertThat(clientCache.findGitHub("property-file", builderFactory)).isEmpty();
+		assertThat(attempts).hasValue(1);
+	}
+
+	@Test
+	void reusesGitLabClientsPerHostAndToken() {
+		assertThat(clientCache.getGitLab("https://gitlab.com", "one"))
+				.isSameAs(clientCache.getGitLab("https://gitlab.com", "one"))
+				.isNotSameAs(clientCache.getGitLab("https://gitlab.com", "two"));
+	}
+
+}
@@ -18,6 +18,7 @@
 package org.springframework.cli.git;
 
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 
@@ -26,6 +27,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
 import org.springframework.cli.config.SpringCliUserConfig;
+import org.springframework.util.FileSystemUtils;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -47,4 +49,37 @@ public class GitSourceRepositoryServiceTests {
 		assertThat(PathUtils.isEmpty(greetingControllerPath)).isFalse();
 	}
 
+	@Test
+	void testSingleFileRetrieval() throws IOException {
+		GitSourceRepositoryService urlRepositoryService = new GitSourceRepositoryService(new SpringCliUserConfig());
+		Path contentPath = urlRepositoryService.retrieveRepositoryFile("https://github.com/rd-1-2022/rest-service",
+				"pom.xml");
+		assertThat(contentPath.resolve("pom.xml")).isNotEmptyFile();
+		assertThat(contentPath.resolve("src")).doesNotExist();
+	}
+
+	@Test
+	void singleFileRetrievalWhileOffline(@TempDir Path tempDir) throws IOException {
+		String repoUrl = "https://github.com/acme/catalog";
+		Path catalog = tempDir.resolve("catalog");
+		Files.createDirectories(catalog);
+		Files.writeString(catalog.resolve("project-catalog.json"), "{}");
+		Files.writeString(catalog.resolve("README.md"), "# Catalog");
+		RepositoryCache repositoryCache = new RepositoryCache(tempDir.resolve("cache"), 10 * 1024 * 1024);
+		repositoryCache.put(GitRepoUrlRef.fromUriString(repoUrl).getRepoUrl().toString(), "0123abc", null, null,
+				catalog);
+		GitSourceRepositoryService urlRepositoryService = new GitSourceRepositoryService(new SpringCliUserConfig(),
+				repositoryCache, true);
+
+		Path contentPath = urlRepositoryService.retrieveRepositoryFile(repoUrl, "project-catalog.json");
+		try {
+			assertThat(contentPath.getFileName().toString()).startsWith("source-file-");
+			assertThat(contentPath.resolve("project-catalog.json")).hasContent("{}");
+			assertThat(contentPath.resolve("README.md")).doesNotExist();
+		}
+		finally {
+			FileSystemUtils.deleteRecursively(contentPath);
+		}
+	}
+
 }
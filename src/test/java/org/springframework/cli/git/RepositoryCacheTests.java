@@ -0,0 +1,94 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cli.git;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RepositoryCacheTests {
+
+	private static final String REPO_URL = "https://github.com/rd-1-2022/rest-service";
+
+	@Test
+	void missThenHit(@TempDir Path tempDir) throws IOException {
+		RepositoryCache cache = new RepositoryCache(tempDir.resolve("cache"), 1024 * 1024);
+		Path target = tempDir.resolve("target");
+		assertThat(cache.copyTo(REPO_URL, "sha1", null, target)).isFalse();
+
+		Path contents = createContents(tempDir.resolve("download"), 10);
+		cache.put(REPO_URL, "sha1", null, null, contents);
+
+		assertThat(cache.copyTo(REPO_URL, "sha1", null, target)).isTrue();
+		assertThat(target.resolve("src").resolve("App.java")).hasContent("0123456789");
+		assertThat(cache.copyTo(REPO_URL, "sha2", null, tempDir.resolve("other"))).isFalse();
+	}
+
+	@Test
+	void subPathServedFromWholeRepository(@TempDir Path tempDir) throws IOException {
+		RepositoryCache cache = new RepositoryCache(tempDir.resolve("cache"), 1024 * 1024);
+		cache.put(REPO_URL, "sha1", null, null, createContents(tempDir.resolve("download"), 10));
+
+		Path target = tempDir.resolve("target");
+		assertThat(cache.copyTo(REPO_URL, "sha1", "src", target)).isTrue();
+		assertThat(target.resolve("App.java")).hasContent("0123456789");
+		assertThat(cache.copyTo(REPO_URL, "sha1", "missing", tempDir.resolve("other"))).isFalse();
+	}
+
+	@Test
+	void evictsLeastRecentlyUsed(@TempDir Path tempDir) throws Exception {
+		RepositoryCache cache = new RepositoryCache(tempDir.resolve("cache"), 25);
+		cache.put(REPO_URL, "sha1", null, null, createContents(tempDir.resolve("one"), 10));
+		Thread.sleep(20);
+		cache.put(REPO_URL, "sha2", null, null, createContents(tempDir.resolve("two"), 10));
+		Thread.sleep(20);
+		// touch the first entry so the second one becomes the least recently used
+		assertThat(cache.copyTo(REPO_URL, "sha1", null, tempDir.resolve("hit"))).isTrue();
+		Thread.sleep(20);
+		cache.put(REPO_URL, "sha3", null, null, createContents(tempDir.resolve("three"), 10));
+
+		assertThat(cache.copyTo(REPO_URL, "sha1", null, tempDir.resolve("t1"))).isTrue();
+		assertThat(cache.copyTo(REPO_URL, "sha2", null, tempDir.resolve("t2"))).isFalse();
+		assertThat(cache.copyTo(REPO_URL, "sha3", null, tempDir.resolve("t3"))).isTrue();
+	}
+
+	@Test
+	void findsLatestCommitOfRef(@TempDir Path tempDir) throws Exception {
+		RepositoryCache cache = new RepositoryCache(tempDir.resolve("cache"), 1024 * 1024);
+		cache.put(REPO_URL, "sha1", null, null, createContents(tempDir.resolve("one"), 10));
+		Thread.sleep(20);
+		cache.put(REPO_URL, "sha2", null, null, createContents(tempDir.resolve("two"), 10));
+		cache.put(REPO_URL, "sha3", "v1.0", null, createContents(tempDir.resolve("three"), 10));
+
+		assertThat(cache.findLatestCommitSha(REPO_URL, null, null)).hasValue("sha2");
+		assertThat(cache.findLatestCommitSha(REPO_URL, null, "src")).hasValue("sha2");
+		assertThat(cache.findLatestCommitSha(REPO_URL, "v1.0", null)).hasValue("sha3");
+		assertThat(cache.findLatestCommitSha(REPO_URL, "main", null)).isEmpty();
+		assertThat(cache.findLatestCommitSha("https://github.com/other/repo", null, null)).isEmpty();
+	}
+
+	private static Path createContents(Path dir, int size) throws IOException {
+		Files.createDirectories(dir.resolve("src"));
+		Files.writeString(dir.resolve("src").resolve("App.java"), "0123456789".substring(0, size));
+		return dir;
+	}
+
+}
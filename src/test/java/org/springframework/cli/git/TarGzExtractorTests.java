@@ -0,0 +1,96 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cli.git;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorOutputStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.springframework.cli.SpringCliException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class TarGzExtractorTests {
+
+	@Test
+	void extractsWithoutRootDirectory(@TempDir Path tempDir) throws IOException {
+		byte[] archive = createArchive(new String[][] {
+				{ "repo-abc123/pom.xml", "<project/>" },
+				{ "repo-abc123/mvnw", "#!/bin/sh" },
+				{ "repo-abc123/src/main/java/App.java", "class App {}" } });
+
+		TarGzExtractor.extract(new ByteArrayInputStream(archive), tempDir);
+
+		assertThat(tempDir.resolve("pom.xml")).hasContent("<project/>");
+		assertThat(tempDir.resolve("src/main/java/App.java")).hasContent("class App {}");
+		assertThat(Files.isExecutable(tempDir.resolve("mvnw"))).isTrue();
+		assertThat(tempDir.resolve("repo-abc123")).doesNotExist();
+	}
+
+	@Test
+	void extractsOnlySubPath(@TempDir Path tempDir) throws IOException {
+		byte[] archive = createArchive(new String[][] {
+				{ "repo-abc123/README.md", "readme" },
+				{ "repo-abc123/commands/hello/command.yaml", "command:" },
+				{ "repo-abc123/commands/hello/new/hello.yaml", "actions:" },
+				{ "repo-abc123/commands-other/other.yaml", "other" } });
+
+		int extracted = TarGzExtractor.extract(new ByteArrayInputStream(archive), tempDir, "/commands/hello/");
+
+		assertThat(extracted).isEqualTo(2);
+		assertThat(tempDir.resolve("command.yaml")).hasContent("command:");
+		assertThat(tempDir.resolve("new/hello.yaml")).hasContent("actions:");
+		assertThat(tempDir.resolve("README.md")).doesNotExist();
+		assertThat(tempDir.resolve("other.yaml")).doesNotExist();
+	}
+
+	@Test
+	void rejectsEntriesOutsideTarget(@TempDir Path tempDir) throws IOException {
+		byte[] archive = createArchive(new String[][] { { "repo-abc123/../../evil.txt", "evil" } });
+
+		assertThatThrownBy(() -> TarGzExtractor.extract(new ByteArrayInputStream(archive), tempDir.resolve("target")))
+				.isInstanceOf(SpringCliException.class);
+		assertThat(tempDir.resolve("evil.txt")).doesNotExist();
+	}
+
+	private static byte[] createArchive(String[][] entries) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (TarArchiveOutputStream tarOut = new TarArchiveOutputStream(new GzipCompressorOutputStream(bytes))) {
+			tarOut.setLongFileMode(TarArchiveOutputStream.LONGFILE_POSIX);
+			for (String[] entry : entries) {
+				byte[] content = entry[1].getBytes(StandardCharsets.UTF_8);
+				TarArchiveEntry tarEntry = new TarArchiveEntry(entry[0], true);
+				tarEntry.setSize(content.length);
+				tarEntry.setMode(entry[0].endsWith("mvnw") ? 0100755 : 0100644);
+				tarOut.putArchiveEntry(tarEntry);
+				tarOut.write(content);
+				tarOut.closeArchiveEntry();
+			}
+		}
+		return bytes.toByteArray();
+	}
+
+}
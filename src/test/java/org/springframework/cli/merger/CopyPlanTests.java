@@ -0,0 +1,58 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cli.merger;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.cli.merger.CopyPlan.Action;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CopyPlanTests {
+
+	private final Path current = Path.of("current");
+
+	private final Path first = Path.of("first");
+
+	private final Path second = Path.of("second");
+
+	@Test
+	void groupsFilesByAction() {
+		CopyPlan copyPlan = new CopyPlan(current);
+		copyPlan.add(Action.SKIP, first.resolve("pom.xml"), current.resolve("pom.xml"), "merged into the current pom");
+		copyPlan.add(Action.RENAME_README, first.resolve("README.md"), current.resolve("README-first.md"));
+		copyPlan.add(Action.COPY, first.resolve("Foo.java"), current.resolve("Foo.java"));
+		copyPlan.add(Action.MERGE_PROPERTIES, first.resolve("application.properties"),
+				current.resolve("application.properties"));
+		copyPlan.add(Action.MERGE_PROPERTIES, second.resolve("application.properties"),
+				current.resolve("application.properties"));
+
+		assertThat(copyPlan.getCopies()).containsExactly(
+				Map.entry(first.resolve("Foo.java"), current.resolve("Foo.java")),
+				Map.entry(first.resolve("README.md"), current.resolve("README-first.md")));
+		assertThat(copyPlan.getMerges(Action.MERGE_PROPERTIES)).containsOnlyKeys(current.resolve("application.properties"))
+				.containsValue(List.of(first.resolve("application.properties"), second.resolve("application.properties")));
+		assertThat(copyPlan.getMerges(Action.MERGE_YAML)).isEmpty();
+		assertThat(copyPlan.describe()).containsExactly("Copy Foo.java", "Copy readme README-first.md",
+				"Merge properties application.properties", "Merge properties application.properties",
+				"Skip pom.xml (merged into the current pom)");
+	}
+
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cli.merger;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Model;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MergeManifestTests {
+
+	private static final String SOURCE_URL = "https://github.com/rd-1-2022/rest-service";
+
+	@Test
+	void storesAndLoadsManifest(@TempDir Path tempDir) throws IOException {
+		Path readme = Files.writeString(tempDir.resolve("README.md"), "# Rest Service");
+		Model model = new Model();
+		model.addProperty("java.version", "17");
+		model.addDependency(dependency("org.springframework.boot", "spring-boot-starter-web", null));
+
+		MergeManifest.create(SOURCE_URL, "abc123", model, Map.of("README.md", MergeManifest.hash(readme)))
+				.store(tempDir);
+
+		assertThat(MergeManifest.load(tempDir, "https://github.com/rd-1-2022/other")).isEmpty();
+		MergeManifest manifest = MergeManifest.load(tempDir, SOURCE_URL).orElseThrow();
+		assertThat(manifest.getCommitSha()).isEqualTo("abc123");
+		assertThat(manifest.isFileUnchanged("README.md", MergeManifest.hash(readme))).isTrue();
+		Files.writeString(readme, "# Rest Service v2");
+		assertThat(manifest.isFileUnchanged("README.md", MergeManifest.hash(readme))).isFalse();
+		assertThat(manifest.isFileUnchanged("HELP.md", MergeManifest.hash(readme))).isFalse();
+		assertThat(manifest.isPropertyUnchanged("java.version", "17")).isTrue();
+		assertThat(manifest.isPropertyUnchanged("java.version", "21")).isFalse();
+		assertThat(manifest.isDependencyUnchanged(dependency("org.springframework.boot", "spring-boot-starter-web", null)))
+				.isTrue();
+		assertThat(manifest.isDependencyUnchanged(dependency("org.springframework.boot", "spring-boot-starter-web", "test")))
+				.isFalse();
+	}
+
+	private static Dependency dependency(String groupId, String artifactId, String scope) {
+		Dependency dependency = new Dependency();
+		dependency.setGroupId(groupId);
+		dependency.setArtifactId(artifactId);
+		dependency.setScope(scope);
+		return dependency;
+	}
+
+}
@@ -0,0 +1,250 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cli.merger;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.springframework.cli.SpringCliException;
+import org.springframework.cli.config.SpringCliUserConfig;
+import org.springframework.cli.git.GitRepoUrlRef;
+import org.springframework.cli.git.GitSourceRepositoryService;
+import org.springframework.cli.git.RepositoryCache;
+import org.springframework.cli.git.SourceRepositoryService;
+import org.springframework.cli.merger.ProjectMerger.MergeSource;
+import org.springframework.cli.util.FileCopier.LinkMode;
+import org.springframework.cli.util.ProjectCatalogIndexer;
+import org.springframework.cli.util.StubTerminalMessage;
+import org.springframework.cli.util.TerminalMessage;
+import org.springframework.util.FileSystemUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class ProjectMergerTests {
+
+	private static final String APPLICATION_PROPERTIES = "src/main/resources/application.properties";
+
+	private static final String APPLICATION_YAML = "src/main/resources/application.yml";
+
+	@Test
+	void addsToProjectLinkedFromRepositoryCache(@TempDir Path tempDir) throws IOException {
+		String repoUrl = "https://github.com/acme/demo";
+		Path demo = tempDir.resolve("demo");
+		writePom(demo, "demo", "org.springframework.boot:spring-boot-starter:3.1.2");
+		writeApplication(demo, "com.example.demo", "DemoApplication");
+		writeFile(demo, APPLICATION_PROPERTIES, "server.port=8080\n");
+		writeFile(demo, "README.md", "# Demo\n");
+		RepositoryCache repositoryCache = new RepositoryCache(tempDir.resolve("cache"), 10 * 1024 * 1024,
+				LinkMode.HARDLINK);
+		String cachedRepoUrl = GitRepoUrlRef.fromUriString(repoUrl).getRepoUrl().toString();
+		repositoryCache.put(cachedRepoUrl, "0123abc", null, null, demo);
+		Path cachedPath = repositoryCache.findContent(cachedRepoUrl, "0123abc", null).get();
+
+		// create the project from the cache, as boot new does
+		GitSourceRepositoryService sourceRepositoryService = new GitSourceRepositoryService(new SpringCliUserConfig(),
+				repositoryCache, true);
+		Path contentPath = sourceRepositoryService.retrieveRepositoryContents(repoUrl);
+		Path project = tempDir.resolve("project");
+		sourceRepositoryService.copyRepositoryContents(contentPath, project);
+
+		assertThat(Files.isSameFile(project.resolve("README.md"), cachedPath.resolve("README.md"))).isTrue();
+		assertThat(Files.isSameFile(project.resolve("pom.xml"), cachedPath.resolve("pom.xml"))).isFalse();
+		assertThat(Files.isSameFile(project.resolve(APPLICATION_PROPERTIES),
+				cachedPath.resolve(APPLICATION_PROPERTIES))).isFalse();
+		Path applicationClass = Path.of("src/main/java/com/example/demo/DemoApplication.java");
+		assertThat(Files.isSameFile(project.resolve(applicationClass), cachedPath.resolve(applicationClass))).isFalse();
+
+		Path add = tempDir.resolve("add");
+		writePom(add, "add", "org.springframework.boot:spring-boot-starter-web:3.1.2");
+		writeApplication(add, "com.example.add", "AddApplication",
+				"org.springframework.scheduling.annotation.EnableScheduling");
+		writeFile(add, APPLICATION_PROPERTIES, "add.greeting=hello\n");
+
+		new ProjectMerger(add, project, "add", TerminalMessage.noop()).merge();
+
+		assertThat(Files.readString(project.resolve("pom.xml"))).contains("spring-boot-starter-web");
+		assertThat(Files.readString(project.resolve(applicationClass))).contains("@EnableScheduling");
+		assertThat(Files.readString(project.resolve(APPLICATION_PROPERTIES))).contains("add.greeting=hello")
+				.contains("server.port=8080");
+		assertThat(Files.readString(cachedPath.resolve("pom.xml"))).doesNotContain("spring-boot-starter-web");
+		assertThat(Files.readString(cachedPath.resolve(applicationClass))).doesNotContain("@EnableScheduling");
+		assertThat(cachedPath.resolve(APPLICATION_PROPERTIES)).hasContent("server.port=8080");
+	}
+
+	@Test
+	void dryRunPrintsPlanWithoutChangingProject(@TempDir Path tempDir) throws IOException {
+		Path project = tempDir.resolve("project");
+		writePom(project, "demo", "org.springframework.boot:spring-boot-starter:3.1.2");
+		writeApplication(project, "com.example.demo", "DemoApplication");
+		Path add = tempDir.resolve("add");
+		writePom(add, "add", "org.springframework.boot:spring-boot-starter-web:3.1.2");
+		writeApplication(add, "com.example.add", "AddApplication",
+				"org.springframework.scheduling.annotation.EnableScheduling");
+		String pom = Files.readString(project.resolve("pom.xml"));
+		Path applicationClass = project.resolve("src/main/java/com/example/demo/DemoApplication.java");
+		String application = Files.readString(applicationClass);
+		StubTerminalMessage terminalMessage = new StubTerminalMessage();
+
+		new ProjectMerger(List.of(new MergeSource(add, "add")), project, terminalMessage, true).merge();
+
+		assertThat(terminalMessage.getPrintAttributedMessages())
+				.contains("  Would merge dependency org.springframework.boot:spring-boot-starter-web",
+						"  Would merge Main Spring Boot Application class annotation: @EnableScheduling")
+				.noneMatch((message) -> message.startsWith("Merging") || message.startsWith("Adding"));
+		assertThat(project.resolve("pom.xml")).hasContent(pom);
+		assertThat(applicationClass).hasContent(application);
+	}
+
+	@Test
+	void mergesSeveralProjectsInOnePass(@TempDir Path tempDir) throws IOException {
+		Path project = tempDir.resolve("project");
+		writePom(project, "demo", "org.springframework.boot:spring-boot-starter:3.1.2");
+		writeApplication(project, "com.example.demo", "DemoApplication");
+		writeFile(project, "README.md", "# Demo\n");
+		Path web = tempDir.resolve("web");
+		writePom(web, "web", "org.springframework.boot:spring-boot-starter-web:3.1.2",
+				"org.springframework.boot:spring-boot-starter-actuator:3.1.2");
+		writeApplication(web, "com.example.web", "WebApplication",
+				"org.springframework.scheduling.annotation.EnableScheduling");
+		writeFile(web, APPLICATION_PROPERTIES, "web.greeting=hello\n");
+		writeFile(web, APPLICATION_YAML, "web:\n  port: 8081\n");
+		writeFile(web, "README.md", "# Web\n");
+		Path cache = tempDir.resolve("cache");
+		writePom(cache, "cache", "org.springframework.boot:spring-boot-starter-web:3.1.2",
+				"org.springframework.boot:spring-boot-starter-cache:3.1.2");
+		writeApplication(cache, "com.example.cache", "CacheApplication",
+				"org.springframework.cache.annotation.EnableCaching");
+		writeFile(cache, APPLICATION_PROPERTIES, "cache.name=greetings\n");
+		writeFile(cache, APPLICATION_YAML, "cache:\n  size: 100\n");
+		writeFile(cache, "README.md", "# Cache\n");
+
+		new ProjectMerger(List.of(new MergeSource(web, "web"), new MergeSource(cache, "cache")), project,
+				TerminalMessage.noop()).merge();
+
+		String pom = Files.readString(project.resolve("pom.xml"));
+		assertThat(pom.split("<artifactId>spring-boot-starter-web</artifactId>", -1)).hasSize(2);
+		assertThat(pom).contains("<artifactId>spring-boot-starter-actuator</artifactId>",
+				"<artifactId>spring-boot-starter-cache</artifactId>");
+		assertThat(project.resolve("README.md")).hasContent("# Demo");
+		assertThat(project.resolve("README-web.md")).hasContent("# Web");
+		assertThat(project.resolve("README-cache.md")).hasContent("# Cache");
+		assertThat(Files.readString(project.resolve(APPLICATION_PROPERTIES))).contains("web.greeting=hello",
+				"cache.name=greetings");
+		assertThat(Files.readString(project.resolve(APPLICATION_YAML))).contains("port: 8081", "size: 100");
+		assertThat(Files.readString(project.resolve("src/main/java/com/example/demo/DemoApplication.java"))).contains(
+				"import org.springframework.scheduling.annotation.EnableScheduling;",
+				"import org.springframework.cache.annotation.EnableCaching;", "@EnableScheduling", "@EnableCaching");
+	}
+
+	@Test
+	void failedFetchDeletesFetchedProjects(@TempDir Path tempDir) throws IOException {
+		Path project = tempDir.resolve("project");
+		writePom(project, "demo", "org.springframework.boot:spring-boot-starter:3.1.2");
+		writeApplication(project, "com.example.demo", "DemoApplication");
+		String pom = Files.readString(project.resolve("pom.xml"));
+		Path web = tempDir.resolve("web");
+		writePom(web, "web", "org.springframework.boot:spring-boot-starter-web:3.1.2");
+		writeApplication(web, "com.example.web", "WebApplication");
+		Path fetched = tempDir.resolve("fetched");
+		SourceRepositoryService sourceRepositoryService = (sourceRepoUrl) -> {
+			if (sourceRepoUrl.endsWith("/missing")) {
+				throw new SpringCliException("Could not retrieve " + sourceRepoUrl);
+			}
+			try {
+				FileSystemUtils.copyRecursively(web, fetched);
+			}
+			catch (IOException ex) {
+				throw new SpringCliException("Could not copy " + web, ex);
+			}
+			return fetched;
+		};
+		ProjectHandler projectHandler = new ProjectHandler(new SpringCliUserConfig(), sourceRepositoryService,
+				new ProjectCatalogIndexer(new SpringCliUserConfig(), sourceRepositoryService), TerminalMessage.noop());
+
+		assertThatExceptionOfType(SpringCliException.class)
+				.isThrownBy(() -> projectHandler.add(
+						List.of("https://github.com/acme/web", "https://github.com/acme/missing"), project.toString()))
+				.withMessageContaining("/missing");
+		assertThat(fetched).doesNotExist();
+		assertThat(project.resolve("pom.xml")).hasContent(pom);
+	}
+
+	private static void writePom(Path projectDir, String artifactId, String... dependencies) throws IOException {
+		StringBuilder pom = new StringBuilder();
+		pom.append("""
+				<?xml version="1.0" encoding="UTF-8"?>
+				<project xmlns="http://maven.apache.org/POM/4.0.0" xmlns:xsi="http://www.w3.org/2001/XMLSchema-instance"
+						xsi:schemaLocation="http://maven.apache.org/POM/4.0.0 https://maven.apache.org/xsd/maven-4.0.0.xsd">
+					<modelVersion>4.0.0</modelVersion>
+					<groupId>com.example</groupId>
+				""");
+		pom.append("\t<artifactId>").append(artifactId).append("</artifactId>\n");
+		pom.append("""
+					<version>0.0.1-SNAPSHOT</version>
+					<properties>
+						<java.version>17</java.version>
+					</properties>
+					<dependencies>
+				""");
+		for (String dependency : dependencies) {
+			String[] coordinates = dependency.split(":");
+			pom.append("\t\t<dependency>\n");
+			pom.append("\t\t\t<groupId>").append(coordinates[0]).append("</groupId>\n");
+			pom.append("\t\t\t<artifactId>").append(coordinates[1]).append("</artifactId>\n");
+			pom.append("\t\t\t<version>").append(coordinates[2]).append("</version>\n");
+			pom.append("\t\t</dependency>\n");
+		}
+		pom.append("""
+					</dependencies>
+				</project>
+				""");
+		writeFile(projectDir, "pom.xml", pom.toString());
+	}
+
+	private static void writeApplication(Path projectDir, String packageName, String className,
+			String... annotationTypes) throws IOException {
+		StringBuilder source = new StringBuilder();
+		source.append("package ").append(packageName).append(";\n\n");
+		source.append("import org.springframework.boot.SpringApplication;\n");
+		source.append("import org.springframework.boot.autoconfigure.SpringBootApplication;\n");
+		for (String annotationType : annotationTypes) {
+			source.append("import ").append(annotationType).append(";\n");
+		}
+		source.append("\n@SpringBootApplication\n");
+		for (String annotationType : annotationTypes) {
+			source.append("@").append(annotationType.substring(annotationType.lastIndexOf('.') + 1)).append("\n");
+		}
+		source.append("public class ").append(className).append(" {\n\n");
+		source.append("\tpublic static void main(String[] args) {\n");
+		source.append("\t\tSpringApplication.run(").append(className).append(".class, args);\n");
+		source.append("\t}\n\n}\n");
+		writeFile(projectDir, "src/main/java/" + packageName.replace('.', '/') + "/" + className + ".java",
+				source.toString());
+	}
+
+	private static void writeFile(Path projectDir, String path, String content) throws IOException {
+		Path file = projectDir.resolve(path);
+		Files.createDirectories(file.getParent());
+		Files.writeString(file, content);
+	}
+
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cli.runtime.command;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CommandRegistryTests {
+
+	@Test
+	void storesCompiledFilesUntilTheyChange(@TempDir Path tempDir) throws IOException {
+		Path commandsDir = tempDir.resolve(".spring/commands");
+		Path commandFile = commandsDir.resolve("hello/new/command.yaml");
+		Files.createDirectories(commandFile.getParent());
+		Files.writeString(commandFile, """
+				command:
+				  description: Say hello
+				  options:
+				    - name: version
+				      defaultValue: 3.10
+				""");
+
+		CommandRegistry registry = CommandRegistry.forCommandsDirectory(commandsDir);
+		assertThat(registry.readCommandFile(commandFile).getCommand().getOptions().get(0).getDefaultValue())
+				.isEqualTo("3.10");
+		registry.save();
+		assertThat(tempDir.resolve(".spring").resolve(CommandRegistry.REGISTRY_FILE_NAME)).exists();
+
+		// a fresh registry reads the stored entry, a changed file is read again
+		CommandRegistry storedRegistry = CommandRegistry.forCommandsDirectory(commandsDir);
+		assertThat(storedRegistry.readCommandFile(commandFile).getCommand().getDescription()).isEqualTo("Say hello");
+		Files.writeString(commandFile, "command:\n  description: Say hello again\n");
+		Files.setLastModifiedTime(commandFile, FileTime.fromMillis(System.currentTimeMillis() + 10_000));
+		assertThat(storedRegistry.readCommandFile(commandFile).getCommand().getDescription())
+				.isEqualTo("Say hello again");
+	}
+
+	@Test
+	void keysFilesRelativeToSpringDirectory(@TempDir Path tempDir) throws IOException {
+		Path project = tempDir.resolve("project");
+		Path commandFile = project.resolve(".spring/commands/hello/new/command.yaml");
+		Files.createDirectories(commandFile.getParent());
+		Files.writeString(commandFile, "command:\n  description: Say hello\n");
+		CommandRegistry registry = CommandRegistry.forCommandsDirectory(project.resolve(".spring/commands"));
+		registry.readCommandFile(commandFile);
+		registry.save();
+		String stored = Files.readString(project.resolve(".spring").resolve(CommandRegistry.REGISTRY_FILE_NAME));
+		assertThat(stored).contains("\"commands/hello/new/command.yaml\"").doesNotContain(tempDir.toString());
+
+		// a moved project keeps using its entries, the registry is not rewritten
+		Path movedProject = Files.move(project, tempDir.resolve("moved"));
+		CommandRegistry movedRegistry = CommandRegistry.forCommandsDirectory(movedProject.resolve(".spring/commands"));
+		Path movedCommandFile = movedProject.resolve(".spring/commands/hello/new/command.yaml");
+		assertThat(movedRegistry.readCommandFile(movedCommandFile).getCommand().getDescription())
+				.isEqualTo("Say hello");
+		movedRegistry.save();
+		assertThat(movedProject.resolve(".spring").resolve(CommandRegistry.REGISTRY_FILE_NAME)).hasContent(stored);
+	}
+
+	@Test
+	void keepsOnlyFilesJsonCanRepresent(@TempDir Path tempDir) throws IOException {
+		Path exact = Files.writeString(tempDir.resolve("exact.yaml"), "version: 3.10\nenabled: true\n");
+		Path hexadecimal = Files.writeString(tempDir.resolve("hexadecimal.yaml"), "mask: 0x1F\n");
+
+		assertThat(CommandRegistry.compile(exact)).isEqualTo("{\"version\":3.10,\"enabled\":true}");
+		assertThat(CommandRegistry.compile(hexadecimal)).isNull();
+	}
+
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cli.runtime.engine.actions;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ActionFileVisitorTests {
+
+	@Test
+	void classifiesByExtensionThenContent(@TempDir Path tempDir) throws IOException {
+		Files.writeString(tempDir.resolve("command.yaml"), "command:\n  description: Hello\n");
+		Path actions = Files.writeString(tempDir.resolve("actions.yaml"), "actions:\n");
+		// the extension wins over the content
+		Files.writeString(tempDir.resolve("logo.png"), "not really an image");
+		Path notes = Files.writeString(tempDir.resolve("notes.unknown"), "plain text notes\n");
+		Files.write(tempDir.resolve("data.unknown"), new byte[] { 0, 1, 2, 3, (byte) 0xff, 0, 0, 7 });
+
+		ActionFileVisitor visitor = new ActionFileVisitor();
+		Files.walkFileTree(tempDir, visitor);
+
+		assertThat(visitor.getMatches()).containsExactlyInAnyOrder(actions, notes);
+	}
+
+}
@@ -116,4 +116,20 @@ class SpELConditionTests {
 
 	}
 
+	@Test
+	void sharesParsedExpressionsAcrossConditionsAndParserContexts() {
+		Map<String, Object> map = new HashMap<>();
+		map.put("person", new Person("foo", 20));
+
+		// read-only access to the model
+		assertThat(new SpELCondition("#{ #person.age == 20 && ['person'].name == 'foo' }").evaluate(map)).isTrue();
+		assertThat(new SpELCondition("#{ #person.age == 20 && ['person'].name == 'foo' }").evaluate(map)).isTrue();
+		// method calls on the model
+		assertThat(new SpELCondition("#{ #person.name.startsWith('f') }").evaluate(map)).isTrue();
+		// expressions are keyed by parser context as well
+		assertThat(new SpELCondition("#person.age > 30", (ParserContext) null).evaluate(map)).isFalse();
+		assertThat(new SpELCondition("%{ #person.age > 30 }", new TemplateParserContext("%{", "}")).evaluate(map))
+				.isFalse();
+	}
+
 }
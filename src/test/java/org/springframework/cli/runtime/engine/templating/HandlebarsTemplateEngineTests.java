@@ -0,0 +1,63 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cli.runtime.engine.templating;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class HandlebarsTemplateEngineTests {
+
+	@Test
+	void cachesCompiledTemplates() {
+		HandlebarsTemplateEngine templateEngine = new HandlebarsTemplateEngine(1);
+		Map<String, Object> model = Map.of("name", "World");
+
+		assertThat(templateEngine.process("Hello, World", model)).isEqualTo("Hello, World");
+		assertThat(templateEngine.process("   ", model)).isEmpty();
+		assertThat(templateEngine.getCacheMisses()).isZero();
+
+		assertThat(templateEngine.process("Hello, {{name}}", model)).isEqualTo("Hello, World");
+		assertThat(templateEngine.process("Hello, {{name}}", Map.of("name", "Spring"))).isEqualTo("Hello, Spring");
+		assertThat(templateEngine.getCacheMisses()).isEqualTo(1);
+		assertThat(templateEngine.getCacheHits()).isEqualTo(1);
+
+		// the cache holds one template, the first one is evicted
+		assertThat(templateEngine.process("Bye, {{name}}", model)).isEqualTo("Bye, World");
+		assertThat(templateEngine.process("Hello, {{name}}", model)).isEqualTo("Hello, World");
+		assertThat(templateEngine.getCacheMisses()).isEqualTo(3);
+	}
+
+	@Test
+	void rendersSimpleVariablesLikeHandlebars() {
+		HandlebarsTemplateEngine templateEngine = new HandlebarsTemplateEngine();
+		Map<String, Object> model = Map.of("artifact-id", "demo", "name", "<b>Spring</b>", "port", 8080);
+
+		assertThat(templateEngine.process("{{artifact-id}}/{{ name }}:{{port}}", model))
+				.isEqualTo("demo/&lt;b&gt;Spring&lt;/b&gt;:8080");
+		// a missing variable and a value that is not a plain value are rendered by Handlebars
+		assertThat(templateEngine.process("[{{missing}}]", model)).isEqualTo("[]");
+		assertThat(templateEngine.process("{{names}}", Map.of("names", List.of("a", "b")))).isEqualTo("[a, b]");
+		// helpers and blocks are rendered by Handlebars
+		assertThat(templateEngine.process("{{capitalize name}}", Map.of("name", "spring"))).isEqualTo("Spring");
+		assertThat(templateEngine.process("{{#if name}}yes{{/if}}", model)).isEqualTo("yes");
+		assertThat(templateEngine.process("{{{name}}}", model)).isEqualTo("<b>Spring</b>");
+	}
+
+}
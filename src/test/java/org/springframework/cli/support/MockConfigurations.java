@@ -40,6 +40,7 @@ import org.springframework.cli.runtime.engine.model.MavenModelPopulator;
 import org.springframework.cli.runtime.engine.model.ModelPopulator;
 import org.springframework.cli.runtime.engine.model.RootPackageModelPopulator;
 import org.springframework.cli.runtime.engine.model.SystemModelPopulator;
+import org.springframework.cli.util.ProjectCatalogIndexer;
 import org.springframework.cli.util.TerminalMessage;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -73,10 +74,17 @@ public class MockConfigurations {
 		SpecialCommands specialCommands() {
 			return new SpecialCommands(TerminalMessage.noop());
 		}
+		@Bean
+		ProjectCatalogIndexer projectCatalogIndexer(SpringCliUserConfig springCliUserConfig,
+				SourceRepositoryService sourceRepositoryService) {
+			return new ProjectCatalogIndexer(springCliUserConfig, sourceRepositoryService);
+		}
+
 		@Bean
 		BootCommands bootCommands(SpringCliUserConfig springCliUserConfig,
-				SourceRepositoryService sourceRepositoryService) {;
-			BootCommands bootCommands = new BootCommands(springCliUserConfig, sourceRepositoryService, TerminalMessage.noop());
+				SourceRepositoryService sourceRepositoryService, ProjectCatalogIndexer projectCatalogIndexer) {
+			BootCommands bootCommands = new BootCommands(springCliUserConfig, sourceRepositoryService,
+					projectCatalogIndexer, TerminalMessage.noop());
 			return bootCommands;
 		}
 
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cli.util;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.springframework.cli.util.FileCopier.CopyResult;
+import org.springframework.cli.util.FileCopier.LinkMode;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class FileCopierTests {
+
+	@Test
+	void copiesDirectoryKeepingExecutableBit(@TempDir Path tempDir) throws IOException {
+		Path from = tempDir.resolve("from");
+		Files.createDirectories(from.resolve("src/main/resources/static"));
+		for (int i = 0; i < 50; i++) {
+			Files.writeString(from.resolve("src/main/resources/static/asset" + i + ".txt"), "asset" + i);
+		}
+		Files.writeString(from.resolve("mvnw"), "#!/bin/sh");
+		from.resolve("mvnw").toFile().setExecutable(true);
+
+		Path to = tempDir.resolve("to");
+		CopyResult result = new FileCopier(4).copyDirectory(from, to);
+
+		assertThat(result.files()).isEqualTo(51);
+		assertThat(result.bytes()).isGreaterThan(0);
+		assertThat(to.resolve("src/main/resources/static/asset42.txt")).hasContent("asset42");
+		assertThat(Files.isExecutable(to.resolve("mvnw"))).isTrue();
+	}
+
+	@Test
+	void linksOnlyUnchangedFiles(@TempDir Path tempDir) throws IOException {
+		Path cached = tempDir.resolve("cached");
+		Files.createDirectories(cached);
+		Files.writeString(cached.resolve("README.md"), "readme");
+		Files.writeString(cached.resolve("pom.xml"), "<project/>");
+		Path from = tempDir.resolve("from");
+		new FileCopier(2).copyDirectory(cached, from);
+		Files.writeString(from.resolve("pom.xml"), "<project><name>changed</name></project>");
+
+		Path to = tempDir.resolve("to");
+		CopyResult result = new FileCopier(2).copyDirectory(from, to, cached, LinkMode.HARDLINK);
+
+		assertThat(result.files()).isEqualTo(2);
+		assertThat(result.linkedFiles()).isEqualTo(1);
+		assertThat(Files.isSameFile(to.resolve("README.md"), cached.resolve("README.md"))).isTrue();
+		assertThat(to.resolve("pom.xml")).hasContent("<project><name>changed</name></project>");
+		assertThat(cached.resolve("pom.xml")).hasContent("<project/>");
+	}
+
+}
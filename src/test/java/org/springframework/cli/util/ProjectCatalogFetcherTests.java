@@ -0,0 +1,78 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cli.util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.springframework.cli.config.SpringCliUserConfig.ProjectCatalog;
+import org.springframework.cli.config.SpringCliUserConfig.ProjectRepository;
+import org.springframework.cli.git.SourceRepositoryService;
+import org.springframework.cli.util.ProjectCatalogFetcher.CatalogProjects;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ProjectCatalogFetcherTests {
+
+	private static final List<ProjectCatalog> CATALOGS = List.of(
+			ProjectCatalog.of("slow", "Slow catalog", "https://example.com/slow", Collections.emptyList()),
+			ProjectCatalog.of("fast", "Fast catalog", "https://example.com/fast", Collections.emptyList()));
+
+	@Test
+	void fetchAllKeepsCatalogOrder(@TempDir Path tempDir) {
+		List<CatalogProjects> result = new ProjectCatalogFetcher(catalogService(tempDir)).fetchAll(CATALOGS);
+
+		assertThat(result).extracting(catalogProjects -> catalogProjects.projectCatalog().getName())
+				.containsExactly("slow", "fast");
+		assertThat(result.get(0).projectRepositories()).extracting(ProjectRepository::getName)
+				.containsExactly("web", "slow-only");
+	}
+
+	private static SourceRepositoryService catalogService(Path tempDir) {
+		return url -> {
+			String name = url.substring(url.lastIndexOf('/') + 1);
+			try {
+				if (name.equals("slow")) {
+					Thread.sleep(200);
+				}
+				Path dir = Files.createTempDirectory(tempDir, name);
+				Files.writeString(dir.resolve("project-catalog.yml"), """
+						project-repositories:
+						  - name: web
+						    url: %1$s/web
+						  - name: %2$s-only
+						    url: %1$s/%2$s-only
+						""".formatted(url, name));
+				return dir;
+			}
+			catch (IOException ex) {
+				throw new UncheckedIOException(ex);
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException(ex);
+			}
+		};
+	}
+
+}
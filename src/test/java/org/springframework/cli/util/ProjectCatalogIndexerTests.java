@@ -0,0 +1,115 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cli.util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.common.jimfs.Jimfs;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.springframework.cli.config.SpringCliUserConfig;
+import org.springframework.cli.config.SpringCliUserConfig.IndexedProject;
+import org.springframework.cli.config.SpringCliUserConfig.ProjectCatalog;
+import org.springframework.cli.config.SpringCliUserConfig.ProjectCatalogs;
+import org.springframework.cli.git.SourceRepositoryService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ProjectCatalogIndexerTests {
+
+	private final AtomicInteger retrievals = new AtomicInteger();
+
+	@Test
+	void namesAreResolvedFromPersistedIndex(@TempDir Path tempDir) {
+		FileSystem fileSystem = Jimfs.newFileSystem();
+		SpringCliUserConfig userConfig = new SpringCliUserConfig((path) -> fileSystem.getPath(path));
+		addCatalog(userConfig, "first");
+		SourceRepositoryService service = catalogService(tempDir);
+
+		ProjectCatalogIndexer indexer = new ProjectCatalogIndexer(userConfig, service);
+		assertThat(indexer.findByName(" WEB ")).map(IndexedProject::getUrl).hasValue("https://example.com/first/web");
+		assertThat(indexer.findByName("missing")).isEmpty();
+		assertThat(retrievals).hasValue(1);
+
+		// a new cli invocation reads the index written by the previous one
+		ProjectCatalogIndexer otherIndexer = new ProjectCatalogIndexer(userConfig, service);
+		assertThat(otherIndexer.getProjects()).extracting(IndexedProject::getCatalog).containsOnly("first");
+		assertThat(retrievals).hasValue(1);
+
+		// adding a catalog rebuilds the index, the first catalog keeps priority
+		addCatalog(userConfig, "second");
+		assertThat(otherIndexer.findByName("web")).map(IndexedProject::getCatalog).hasValue("first");
+		assertThat(otherIndexer.findByName("second-only")).map(IndexedProject::getCatalog).hasValue("second");
+		assertThat(retrievals).hasValue(3);
+	}
+
+	@Test
+	void staleIndexIsRefreshedBeforeAnswering(@TempDir Path tempDir) throws InterruptedException {
+		FileSystem fileSystem = Jimfs.newFileSystem();
+		SpringCliUserConfig userConfig = new SpringCliUserConfig((path) -> fileSystem.getPath(path));
+		addCatalog(userConfig, "first");
+		ProjectCatalogIndexer indexer = new ProjectCatalogIndexer(userConfig, catalogService(tempDir),
+				Duration.ZERO, false, false);
+
+		assertThat(indexer.findByName("web")).isPresent();
+		assertThat(retrievals).hasValue(1);
+		Thread.sleep(10);
+
+		// a one-shot command refreshes before it answers and exits
+		assertThat(indexer.findByName("web")).isPresent();
+		assertThat(retrievals).hasValue(2);
+	}
+
+	private static void addCatalog(SpringCliUserConfig userConfig, String name) {
+		List<ProjectCatalog> projectCatalogs = new ArrayList<>(userConfig.getProjectCatalogs().getProjectCatalogs());
+		projectCatalogs.add(ProjectCatalog.of(name, name, "https://example.com/" + name, Collections.emptyList()));
+		ProjectCatalogs projectCatalogsConfig = new ProjectCatalogs();
+		projectCatalogsConfig.setProjectCatalogs(projectCatalogs);
+		userConfig.setProjectCatalogs(projectCatalogsConfig);
+	}
+
+	private SourceRepositoryService catalogService(Path tempDir) {
+		return url -> {
+			retrievals.incrementAndGet();
+			String name = url.substring(url.lastIndexOf('/') + 1);
+			try {
+				Path dir = Files.createTempDirectory(tempDir, name);
+				Files.writeString(dir.resolve("project-catalog.yml"), """
+						project-repositories:
+						  - name: web
+						    url: %1$s/web
+						  - name: %2$s-only
+						    url: %1$s/%2$s-only
+						""".formatted(url, name));
+				return dir;
+			}
+			catch (IOException ex) {
+				throw new UncheckedIOException(ex);
+			}
+		};
+	}
+
+}
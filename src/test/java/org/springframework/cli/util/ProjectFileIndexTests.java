@@ -0,0 +1,59 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cli.util;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.springframework.cli.util.ProjectFileIndex.IndexedFile;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ProjectFileIndexTests {
+
+	@Test
+	void indexesProjectInOneWalk(@TempDir Path tempDir) throws IOException {
+		write(tempDir.resolve("pom.xml"), "<project/>");
+		write(tempDir.resolve(".git/config"), "[core]");
+		write(tempDir.resolve("src/it/java/com/example/it/ItApplication.java"),
+				"package com.example.it;\n@SpringBootApplication\nclass ItApplication {}");
+		write(tempDir.resolve("src/main/java/com/example/demo/DemoApplication.java"),
+				"package com.example.demo;\n@SpringBootApplication\nclass DemoApplication {}");
+		write(tempDir.resolve("src/main/java/com/example/demo/Greeter.java"),
+				"package com.example.demo;\nclass Greeter {}");
+
+		ProjectFileIndex index = ProjectFileIndex.of(tempDir);
+
+		assertThat(index.getFiles()).extracting(IndexedFile::path)
+				.doesNotContain(Path.of(".git", "config"))
+				.contains(Path.of("pom.xml"));
+		assertThat(index.getFiles()).allMatch(file -> file.size() > 0 && file.lastModified() > 0);
+		assertThat(index.getPaths("java")).hasSize(3).allMatch(path -> path.startsWith(tempDir));
+		assertThat(index.findSpringBootApplicationFile()).map(IndexedFile::path)
+				.hasValue(Path.of("src/main/java/com/example/demo/DemoApplication.java"));
+		assertThat(RootPackageFinder.findRootPackage(index)).hasValue("com.example.demo");
+	}
+
+	private static void write(Path path, String content) throws IOException {
+		Files.createDirectories(path.getParent());
+		Files.writeString(path, content);
+	}
+
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cli.util;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RefactorUtilsTests {
+
+	// more than twice the minimum batch size, so the files are parsed in several batches on multi core machines
+	private static final int CLASSES_PER_PACKAGE = 60;
+
+	@Test
+	void refactorsPackageAcrossBatches(@TempDir Path tempDir) throws IOException {
+		Path sourceRoot = tempDir.resolve("src/main/java");
+		// the package in a string literal rules out the text rename, forcing OpenRewrite
+		write(sourceRoot.resolve("com/example/Application.java"), """
+				package com.example;
+
+				public class Application {
+
+					static final String BASE_PACKAGE = "com.example";
+
+				}
+				""");
+		for (int i = 0; i < CLASSES_PER_PACKAGE; i++) {
+			write(sourceRoot.resolve("com/example/model/Model" + i + ".java"),
+					referencingClass("model", "Model" + i, "service", "Service" + i));
+			write(sourceRoot.resolve("com/example/service/Service" + i + ".java"),
+					referencingClass("service", "Service" + i, "model", "Model" + i));
+		}
+
+		RefactorUtils.refactorPackage("org.acme.app", "com.example", tempDir);
+
+		assertThat(sourceRoot.resolve("com")).doesNotExist();
+		assertThat(sourceRoot.resolve("org/acme/app/Application.java")).exists();
+		for (int i = 0; i < CLASSES_PER_PACKAGE; i++) {
+			assertReferencesRewritten(sourceRoot.resolve("org/acme/app/model/Model" + i + ".java"), "model",
+					"service", "Service" + i);
+			assertReferencesRewritten(sourceRoot.resolve("org/acme/app/service/Service" + i + ".java"), "service",
+					"model", "Model" + i);
+		}
+	}
+
+	private static String referencingClass(String packageName, String className, String otherPackageName,
+			String otherClassName) {
+		return """
+				package com.example.%1$s;
+
+				import com.example.%3$s.%4$s;
+
+				public class %2$s {
+
+					%4$s imported;
+
+					com.example.%3$s.%4$s qualified;
+
+				}
+				""".formatted(packageName, className, otherPackageName, otherClassName);
+	}
+
+	private static void assertReferencesRewritten(Path file, String packageName, String otherPackageName,
+			String otherClassName) throws IOException {
+		assertThat(file).exists();
+		assertThat(Files.readString(file)).contains("package org.acme.app." + packageName + ";",
+				"import org.acme.app." + otherPackageName + "." + otherClassName + ";",
+				"org.acme.app." + otherPackageName + "." + otherClassName + " qualified;")
+				.doesNotContain("com.example");
+	}
+
+	private static void write(Path file, String content) throws IOException {
+		Files.createDirectories(file.getParent());
+		Files.writeString(file, content);
+	}
+
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cli.util;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RootPackageFinderTests {
+
+	@Test
+	void prefersMainSourcesAndReadsPackageDeclaration(@TempDir Path tempDir) throws IOException {
+		write(tempDir.resolve("src/test/java/com/example/TestApplication.java"),
+				"package com.example.test;\n\n@SpringBootApplication\nclass TestApplication {}\n");
+		write(tempDir.resolve("src/main/java/com/example/demo/DemoApplication.java"),
+				"/* header */\npackage com.example.demo ;\n\n@SpringBootApplication\nclass DemoApplication {}\n");
+
+		assertThat(RootPackageFinder.findSpringBootApplicationFile(tempDir.toFile()))
+				.hasValue(tempDir.resolve("src/main/java/com/example/demo/DemoApplication.java").toFile());
+		assertThat(RootPackageFinder.findRootPackage(tempDir.toFile())).hasValue("com.example.demo");
+	}
+
+	@Test
+	void findsAnnotationSpanningReadBuffers(@TempDir Path tempDir) throws IOException {
+		// place the annotation across the boundary of the first read
+		String padding = "/" + "*".repeat(8180) + "*/\n";
+		write(tempDir.resolve("Application.java"), "package com.example;\n" + padding + "@SpringBootApplication\n");
+		write(tempDir.resolve("Other.java"), "package com.example;\n" + padding + "@SpringBoot\n");
+
+		assertThat(RootPackageFinder.containsSpringBootApplication(tempDir.resolve("Application.java"))).isTrue();
+		assertThat(RootPackageFinder.containsSpringBootApplication(tempDir.resolve("Other.java"))).isFalse();
+		assertThat(RootPackageFinder.findRootPackage(tempDir.toFile())).hasValue("com.example");
+	}
+
+	private static void write(Path path, String content) throws IOException {
+		Files.createDirectories(path.getParent());
+		Files.writeString(path, content);
+	}
+
+}
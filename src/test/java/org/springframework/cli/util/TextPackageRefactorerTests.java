@@ -0,0 +1,114 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cli.util;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TextPackageRefactorerTests {
+
+	private final TextPackageRefactorer refactorer = new TextPackageRefactorer("com.example", "org.acme.app");
+
+	@Test
+	void rewritesReferencesOutsideLiterals() {
+		String content = """
+				package com.example.web;
+
+				import com.example.Service;
+				import com.examples.Other;
+				import static com.example.Util.*;
+
+				// uses com.example.Service, don't touch "quotes" here
+				class Controller extends com.example.Base {
+					char c = '"';
+				}
+				""";
+
+		assertThat(refactorer.rewrite(content)).isEqualTo("""
+				package org.acme.app.web;
+
+				import org.acme.app.Service;
+				import com.examples.Other;
+				import static org.acme.app.Util.*;
+
+				// uses org.acme.app.Service, don't touch "quotes" here
+				class Controller extends org.acme.app.Base {
+					char c = '"';
+				}
+				""");
+		assertThat(refactorer.rewrite("@ComponentScan(\"com.example\") class Application {}")).isNull();
+		assertThat(refactorer.rewrite("String s = \"\"\"\n\tcom.example.Foo\n\t\"\"\";")).isNull();
+	}
+
+	@Test
+	void movesPackageDirectories(@TempDir Path tempDir) throws IOException {
+		Path application = write(tempDir.resolve("src/main/java/com/example/Application.java"),
+				"package com.example;\n\nclass Application {}\n");
+		Path controller = write(tempDir.resolve("src/main/java/com/example/web/Controller.java"),
+				"package com.example.web;\n\nimport com.example.Application;\n\nclass Controller {}\n");
+		Path test = write(tempDir.resolve("src/test/java/com/example/ApplicationTests.java"),
+				"package com.example;\n\nclass ApplicationTests {}\n");
+
+		assertThat(refactorer.refactor(List.of(application, controller, test))).isTrue();
+
+		assertThat(tempDir.resolve("src/main/java/org/acme/app/Application.java")).exists();
+		assertThat(tempDir.resolve("src/main/java/org/acme/app/web/Controller.java")).content()
+				.isEqualTo("package org.acme.app.web;\n\nimport org.acme.app.Application;\n\nclass Controller {}\n");
+		assertThat(tempDir.resolve("src/test/java/org/acme/app/ApplicationTests.java")).exists();
+		assertThat(tempDir.resolve("src/main/java/com")).doesNotExist();
+		assertThat(tempDir.resolve("src/test/java/com")).doesNotExist();
+	}
+
+	@Test
+	void changesNothingWhenLiteralsReferToPackage(@TempDir Path tempDir) throws IOException {
+		String content = "package com.example;\n\n@ComponentScan(\"com.example\")\nclass Application {}\n";
+		Path application = write(tempDir.resolve("src/main/java/com/example/Application.java"), content);
+
+		assertThat(refactorer.refactor(List.of(application))).isFalse();
+
+		assertThat(application).content().isEqualTo(content);
+	}
+
+	@Test
+	void changesNothingForSingleSegmentPackage(@TempDir Path tempDir) throws IOException {
+		String content = """
+				package demo;
+
+				class Application {
+					String demo = demo();
+					String demo() { return "demo"; }
+				}
+				""";
+		Path application = write(tempDir.resolve("src/main/java/demo/Application.java"), content);
+
+		assertThat(new TextPackageRefactorer("demo", "com.acme.app").refactor(List.of(application))).isFalse();
+
+		assertThat(application).content().isEqualTo(content);
+	}
+
+	private static Path write(Path path, String content) throws IOException {
+		Files.createDirectories(path.getParent());
+		return Files.writeString(path, content);
+	}
+
+}